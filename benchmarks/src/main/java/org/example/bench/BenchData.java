@@ -0,0 +1,80 @@
+package org.example.bench;
+
+import org.example.Database;
+import org.example.EventBus;
+import org.example.ItemManager;
+import org.example.ItemQuery;
+import org.example.LedgerWriter;
+import org.example.UserAuth;
+import org.example.WalletManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+// Shared fixture: every benchmark fork gets its own temporary data directory (users.db + items journal).
+// Must be touched before any org.example class is loaded, which is why all benchmarks go through ensure(),
+// and removed by cleanup() from each benchmark's trial teardown.
+final class BenchData {
+    static final String SELLER = "bench-seller";
+    private static final double BIG_DEPOSIT = 1e12;
+    private static final Set<String> users = new HashSet<>();
+    private static final Path dir;
+
+    static {
+        try {
+            dir = Files.createTempDirectory("auction-bench");
+            System.setProperty("auction.dataDir", dir.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        UserAuth.initDB();
+    }
+
+    private BenchData() {}
+
+    static void ensure() {}
+
+    // Registered once per fork and funded so bids never fail on balance
+    static synchronized String user(String name) {
+        if (users.add(name)) {
+            UserAuth.register(name, "bench");
+            WalletManager.deposit(name, BIG_DEPOSIT);
+        }
+        return name;
+    }
+
+    static void createCatalog(int size) {
+        for (int i = 0; i < size; i++) {
+            String category = ItemQuery.CATEGORIES.get(i % ItemQuery.CATEGORIES.size());
+            // Long enough that nothing expires during a run
+            ItemManager.createAuction("bench item " + i, 1, category, SELLER, "", "New", 24 * 60);
+        }
+    }
+
+    // Auctions that are already due: the next expiration check closes them
+    static void createDue(int count) {
+        for (int i = 0; i < count; i++) {
+            ItemManager.createAuction("bench due " + i, 1, ItemQuery.CATEGORIES.get(0), SELLER, "", "New", 0);
+        }
+    }
+
+    // Stops the writers the way AuctionServer does on shutdown, then deletes the data directory.
+    // The engine's own shutdown hooks find nothing left to write.
+    static void cleanup() {
+        EventBus.drain();
+        WalletManager.flush();
+        LedgerWriter.shutdown();
+        Database.shutdown();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(f -> f.toFile().delete());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+// Entry point of benchmarks.jar.
+// With arguments it behaves exactly like the stock JMH launcher; without, it runs the whole suite with the
+// GC profiler attached (allocation rate per op next to every score) and placeBid at 1 and N threads.
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException, IOException {
+        if (args.length > 0) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads : new int[]{1, cores}) {
+            run(new OptionsBuilder().include(BidBenchmark.class.getSimpleName()).threads(threads));
+        }
+        run(new OptionsBuilder()
+                .include(CatalogBenchmark.class.getSimpleName())
+                .include(SearchBenchmark.class.getSimpleName())
+                .include(WalletBenchmark.class.getSimpleName()));
+    }
+
+    private static void run(ChainedOptionsBuilder builder) throws RunnerException {
+        Options options = builder.addProfiler(GCProfiler.class).build();
+        new Runner(options).run();
+    }
+}
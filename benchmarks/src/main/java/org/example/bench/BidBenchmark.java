@@ -0,0 +1,56 @@
+package org.example.bench;
+
+import org.example.ItemManager;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// placeBid under contention: run with -t 1..N. items=1 puts every thread on one hot item,
+// items=1024 spreads them over many.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BidBenchmark {
+
+    @Param({"1", "1024"})
+    public int items;
+
+    private List<ItemManager.Item> catalog;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchData.ensure();
+        BenchData.user(BenchData.SELLER);
+        BenchData.createCatalog(items);
+        catalog = ItemManager.getAllItems();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchData.cleanup();
+    }
+
+    @State(Scope.Thread)
+    public static class Bidder {
+        String name;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setup(ThreadParams thread) {
+            BenchData.ensure();
+            name = BenchData.user("bench-bidder-" + thread.getThreadIndex());
+            next = thread.getThreadIndex();
+        }
+    }
+
+    @Benchmark
+    public String placeBid(Bidder bidder) {
+        ItemManager.Item item = catalog.get(bidder.next++ % catalog.size());
+        return ItemManager.placeBid(item, bidder.name, item.currentBid() + 1);
+    }
+}
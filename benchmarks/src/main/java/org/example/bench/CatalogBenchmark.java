@@ -0,0 +1,55 @@
+package org.example.bench;
+
+import org.example.ItemManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Engine tick and full persistence at growing catalog sizes
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogBenchmark {
+    private static final int DUE = 1000;
+
+    @Param({"1000", "100000", "1000000"})
+    public int catalogSize;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchData.ensure();
+        BenchData.createCatalog(catalogSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchData.cleanup();
+    }
+
+    // DUE auctions come due before every shot, so each call closes a real batch instead of polling an empty queue
+    @State(Scope.Benchmark)
+    public static class DueBatch {
+        @Setup(Level.Iteration)
+        public void seed() {
+            BenchData.createDue(DUE);
+        }
+    }
+
+    // One tick closing DUE auctions among catalogSize open ones; the score is per closed auction
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 5, batchSize = 1)
+    @Measurement(iterations = 20, batchSize = 1)
+    @OperationsPerInvocation(DUE)
+    public boolean checkExpirations(DueBatch batch) {
+        return ItemManager.checkExpirations();
+    }
+
+    @Benchmark
+    public void saveAllItems() {
+        ItemManager.saveAllItems();
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.bench;
+
+import org.example.ItemManager;
+import org.example.ItemQuery;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Search and category browsing. repeatedQuery is the UI refresh pattern (same query every tick),
+// rotatingQuery changes the query on every call.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+    private static final String[] QUERIES = {"it", "item 1", "bench item 99", "m 42", "zzz", "ITEM 7"};
+
+    @Param({"1000", "100000"})
+    public int catalogSize;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchData.ensure();
+        BenchData.createCatalog(catalogSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchData.cleanup();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public List<ItemManager.Item> repeatedQuery() {
+        return ItemManager.searchItems("item 12");
+    }
+
+    @Benchmark
+    public List<ItemManager.Item> rotatingQuery(Cursor cursor) {
+        return ItemManager.searchItems(QUERIES[cursor.next++ % QUERIES.length]);
+    }
+
+    @Benchmark
+    public List<ItemManager.Item> itemsByCategory(Cursor cursor) {
+        return ItemManager.getItemsByCategory(ItemQuery.CATEGORIES.get(cursor.next++ % ItemQuery.CATEGORIES.size()));
+    }
+}
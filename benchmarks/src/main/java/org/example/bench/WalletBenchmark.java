@@ -0,0 +1,42 @@
+package org.example.bench;
+
+import org.example.WalletManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// One hold / release / transfer cycle against a temporary SQLite file
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WalletBenchmark {
+    private String buyer, seller;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchData.ensure();
+        buyer = BenchData.user("bench-buyer");
+        seller = BenchData.user(BenchData.SELLER);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchData.cleanup();
+    }
+
+    @Benchmark
+    public boolean holdReleaseTransfer() {
+        boolean held = WalletManager.holdFunds(buyer, 200);   // cents
+        WalletManager.releaseFunds(buyer, 100);
+        WalletManager.transferLockedFundsToSeller(buyer, seller, 100);
+        return held;
+    }
+
+    @Benchmark
+    public double getBalance() {
+        return WalletManager.getBalance(buyer);
+    }
+}
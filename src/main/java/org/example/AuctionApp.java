@@ -2,38 +2,64 @@ package org.example;
 
 import javafx.application.Application;
 import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
 import java.io.File;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public class AuctionApp extends Application {
 
     private Stage primaryStage;
-    private VBox itemListContainer;
+    private ListView<ItemManager.Item> listView;
     private VBox sidebar;
     private Label resCount;
     private Label lblBalance;
     private File selectedImageFile;
     private AuctionEngine backgroundThread;
 
-    // --- FIX 1: Store the search query so the thread can see it ---
-    private String currentSearchQuery = "";
+    // --- FIX 1: Remember what the list is showing, so engine events can be filtered against it ---
+    private Predicate<ItemManager.Item> viewFilter = i -> true;
+    // Fetches the current listing again (after a RELOAD event: the feed lost changes)
+    private Runnable reloadListing = () -> {};
+
+    // --- VIRTUALIZED LISTING ---
+    // The ListView only builds cells for the viewport; `listed` grows one page at a time as the user scrolls.
+    private static final int PAGE_SIZE = 50;
+    private static final int PREFETCH_ROWS = 15;   // start loading the next page this many rows before the end
+    private static final double ROW_HEIGHT = 201;  // 160px image + padding + border; fixed size keeps layout O(viewport)
+    private static final int HISTORY_PAGE = 20;    // archived auctions per "More"
+
+    // Next page after `last` (null = first page), in listing order
+    private interface PageSource {
+        CompletableFuture<List<ItemManager.Item>> next(ItemManager.Item last, int limit);
+    }
+
+    private final ObservableList<ItemManager.Item> listed = FXCollections.observableArrayList();
+    private PageSource pageSource;
+    private int totalResults;
+    private boolean pageLoading, exhausted;
+    private int listingGeneration; // bumped on every new listing so late pages of the old one are dropped
 
-    private final Map<String, ItemRow> rowCache = new HashMap<>();
+    // Cells currently showing an item; Item has identity equality, so this is an identity map
+    private final Map<ItemManager.Item, ItemCell> visibleRows = new HashMap<>();
 
     public static void main(String[] args) {
         launch(args);
@@ -42,7 +68,7 @@ public class AuctionApp extends Application {
     @Override
     public void start(Stage stage) {
         this.primaryStage = stage;
-        UserAuth.initDB();
+        if (!RemoteAuction.ENABLED) UserAuth.initDB(); // a remote client keeps no local state
         showLoginScreen();
         stage.setTitle("eBay Clone - Real Time Auction");
         stage.show();
@@ -51,6 +77,14 @@ public class AuctionApp extends Application {
     @Override
     public void stop() throws Exception {
         if (backgroundThread != null) backgroundThread.stopEngine();
+        AuctionCommands.shutdown();
+        if (!RemoteAuction.ENABLED) {
+            EventBus.drain(); // journal records and settlements still in the ring
+            WalletManager.flush();
+            LedgerWriter.shutdown();
+            try { Ledger.checkpointAll(); } catch (SQLException e) { e.printStackTrace(); }
+            Database.shutdown();
+        }
         super.stop();
     }
 
@@ -69,16 +103,26 @@ public class AuctionApp extends Application {
 
         Button btnLogin = new Button("Sign In");
         btnLogin.setStyle("-fx-background-color: #3665f3; -fx-text-fill: white; -fx-padding: 10 120; -fx-background-radius: 20;");
+        // Credentials are checked on the auth pool; the buttons stay disabled while it works
         btnLogin.setOnAction(e -> {
-            if (UserAuth.login(txtUser.getText(), txtPass.getText())) showMainScreen(txtUser.getText());
-            else lblStatus.setText("❌ Invalid Credentials");
+            String user = txtUser.getText();
+            btnLogin.setDisable(true);
+            onFx(AuctionCommands.login(user, txtPass.getText()), token -> {
+                btnLogin.setDisable(false);
+                if (token != null) showMainScreen(user);
+                else lblStatus.setText("❌ Invalid Credentials");
+            }, ex -> { btnLogin.setDisable(false); lblStatus.setText("❌ " + errorMessage(ex, "Sign-in failed")); });
         });
 
         Button btnRegister = new Button("Create account");
         btnRegister.setStyle("-fx-background-color: transparent; -fx-text-fill: #3665f3;");
         btnRegister.setOnAction(e -> {
-            if (UserAuth.register(txtUser.getText(), txtPass.getText())) lblStatus.setText("✅ Account created! (+ $1000 Bonus)");
-            else lblStatus.setText("❌ Username taken.");
+            btnRegister.setDisable(true);
+            onFx(AuctionCommands.register(txtUser.getText(), txtPass.getText()), created -> {
+                btnRegister.setDisable(false);
+                if (created) lblStatus.setText("✅ Account created! (+ $1000 Bonus)");
+                else lblStatus.setText("❌ Username taken.");
+            }, ex -> { btnRegister.setDisable(false); lblStatus.setText("❌ " + errorMessage(ex, "Sign-in failed")); });
         });
 
         layout.getChildren().addAll(lblTitle, txtUser, txtPass, btnLogin, btnRegister, lblStatus);
@@ -105,10 +149,11 @@ public class AuctionApp extends Application {
         Button btnSearch = new Button("Search");
         btnSearch.setStyle("-fx-background-color: #3665f3; -fx-text-fill: white;");
 
-        // --- FIX 2: Update the variable when searching ---
+        // --- FIX 2: Update the view filter when searching ---
         btnSearch.setOnAction(e -> {
-            currentSearchQuery = txtSearch.getText();
-            refreshList(ItemManager.searchItems(currentSearchQuery), username);
+            String q = txtSearch.getText().toLowerCase();
+            viewFilter = i -> i.name.toLowerCase().contains(q);
+            showSearch(q, username);
         });
 
         searchBox.getChildren().addAll(txtSearch, btnSearch);
@@ -118,6 +163,7 @@ public class AuctionApp extends Application {
         updateBalanceLabel(username);
 
         Button btnWallet = new Button("Wallet"); btnWallet.setOnAction(e -> showWalletPopup(username));
+        Button btnHistory = new Button("History"); btnHistory.setOnAction(e -> showHistoryPopup(username));
         Button btnSell = new Button("Sell"); btnSell.setOnAction(e -> showSellScreen(username));
 
         Label lblUser = new Label("Hi, " + username);
@@ -126,14 +172,16 @@ public class AuctionApp extends Application {
         btnLogout.setStyle("-fx-background-color: transparent; -fx-text-fill: #3665f3; -fx-underline: true;");
         btnLogout.setOnAction(e -> {
             if (backgroundThread != null) backgroundThread.stopEngine();
+            if (RemoteAuction.ENABLED) RemoteAuction.logout();
             showLoginScreen();
         });
 
-        header.getChildren().addAll(logo, searchBox, lblBalance, btnWallet, btnSell, lblUser, btnLogout);
+        header.getChildren().addAll(logo, searchBox, lblBalance, btnWallet, btnHistory, btnSell, lblUser, btnLogout);
         root.setTop(header);
 
         // SIDEBAR
         sidebar = new VBox(10); sidebar.setPadding(new Insets(20)); sidebar.setPrefWidth(220); root.setLeft(sidebar);
+        buildSidebar(username);
 
         // CENTER LIST
         VBox centerLayout = new VBox(15); centerLayout.setPadding(new Insets(20));
@@ -142,31 +190,34 @@ public class AuctionApp extends Application {
 
         Button btnReset = new Button("Refresh / Show All");
         btnReset.setOnAction(e -> {
-            currentSearchQuery = ""; // Clear search
+            viewFilter = i -> true; // Clear search
             txtSearch.clear();
-            refreshList(ItemManager.getAllItems(), username);
+            showCatalog(null, username);
         });
 
         filters.getChildren().addAll(resCount, btnReset);
 
-        itemListContainer = new VBox(0);
-        ScrollPane scroll = new ScrollPane(itemListContainer);
-        scroll.setFitToWidth(true);
-        scroll.setStyle("-fx-background: white; -fx-border-color: transparent;");
+        visibleRows.clear(); // Cells belonged to the previous screen's list
+        listView = new ListView<>(listed);
+        listView.setFixedCellSize(ROW_HEIGHT);
+        listView.setCellFactory(lv -> new ItemCell(username));
+        listView.setStyle("-fx-background-color: white; -fx-border-color: transparent;");
+        VBox.setVgrow(listView, Priority.ALWAYS);
 
-        centerLayout.getChildren().addAll(filters, scroll);
+        centerLayout.getChildren().addAll(filters, listView);
         root.setCenter(centerLayout);
 
-        // --- FIX 3: Background thread uses the saved query ---
+        // --- FIX 3: Background thread sends only what changed ---
         if (backgroundThread == null || !backgroundThread.isAlive()) {
-            backgroundThread = new AuctionEngine(() -> {
-                // Always refresh based on what the user is currently searching for
-                refreshList(ItemManager.searchItems(currentSearchQuery), username);
+            backgroundThread = new AuctionEngine(new AuctionEngine.Listener() {
+                @Override public void onItemEvents(List<ItemEvent> events) { applyEvents(events, username); }
+                @Override public void onTick() { for (ItemCell c : visibleRows.values()) c.row.updateCountdown(); }
             });
             backgroundThread.start();
         }
 
-        refreshList(ItemManager.getAllItems(), username);
+        viewFilter = i -> true;
+        showCatalog(null, username);
         primaryStage.setScene(new Scene(root, 1200, 800));
     }
 
@@ -178,7 +229,7 @@ public class AuctionApp extends Application {
 
         TextField txtName = new TextField(); txtName.setPromptText("Title");
         TextField txtPrice = new TextField(); txtPrice.setPromptText("Starting Bid ($)");
-        ComboBox<String> cmbCategory = new ComboBox<>(); cmbCategory.getItems().addAll(ItemManager.CATEGORIES); cmbCategory.setMaxWidth(Double.MAX_VALUE);
+        ComboBox<String> cmbCategory = new ComboBox<>(); cmbCategory.getItems().addAll(ItemQuery.CATEGORIES); cmbCategory.setMaxWidth(Double.MAX_VALUE);
         ComboBox<Integer> cmbDuration = new ComboBox<>(); cmbDuration.getItems().addAll(1, 5, 10, 60); cmbDuration.getSelectionModel().select(0); cmbDuration.setMaxWidth(Double.MAX_VALUE);
 
         Button btnImage = new Button("Upload Photo"); Label lblImgStatus = new Label("No file");
@@ -187,8 +238,10 @@ public class AuctionApp extends Application {
         Button btnSubmit = new Button("List Item"); btnSubmit.setStyle("-fx-background-color: #3665f3; -fx-text-fill: white;");
         btnSubmit.setOnAction(e -> {
             if (!txtName.getText().isEmpty() && !txtPrice.getText().isEmpty() && selectedImageFile != null && cmbCategory.getValue() != null) {
-                ItemManager.createAuction(txtName.getText(), Double.parseDouble(txtPrice.getText()), cmbCategory.getValue(), username, selectedImageFile.toURI().toString(), "New", cmbDuration.getValue());
-                showMainScreen(username);
+                btnSubmit.setDisable(true);
+                onFx(AuctionCommands.createAuction(txtName.getText(), Double.parseDouble(txtPrice.getText()), cmbCategory.getValue(), username, selectedImageFile.toURI().toString(), "New", cmbDuration.getValue()),
+                        v -> showMainScreen(username),
+                        ex -> { btnSubmit.setDisable(false); showAlert("Could not list item"); });
             }
         });
         Button btnCancel = new Button("Cancel"); btnCancel.setOnAction(e -> showMainScreen(username));
@@ -197,124 +250,328 @@ public class AuctionApp extends Application {
         primaryStage.setScene(new Scene(root, 1200, 800));
     }
 
-    // --- SMART REFRESH LOGIC ---
-    private void refreshList(List<ItemManager.Item> items, String currentUser) {
-        updateBalanceLabel(currentUser);
-        resCount.setText(items.size() + " results");
-
-        // 1. Refresh Sidebar
-        sidebar.getChildren().clear(); sidebar.getChildren().add(new Label("Categories"));
-        sidebar.getChildren().addAll(ItemManager.CATEGORIES.stream().map(cat -> {
+    // --- SIDEBAR (built once per screen) ---
+    private void buildSidebar(String currentUser) {
+        sidebar.getChildren().add(new Label("Categories"));
+        for (String cat : ItemQuery.CATEGORIES) {
             Hyperlink link = new Hyperlink(cat);
             link.setOnAction(e -> {
                 // Clicking sidebar clears search and filters by category
-                currentSearchQuery = "";
-                refreshList(ItemManager.getItemsByCategory(cat), currentUser);
+                viewFilter = i -> i.category.equalsIgnoreCase(cat);
+                showCatalog(cat, currentUser);
             });
-            return link;
-        }).collect(Collectors.toList()));
-
-        // 2. Refresh Items (SMART UPDATE)
-        Map<String, ItemManager.Item> currentItemMap = new HashMap<>();
-        for(ItemManager.Item item : items) {
-            String key = item.name + item.owner;
-            currentItemMap.put(key, item);
+            sidebar.getChildren().add(link);
         }
+    }
 
-        for (ItemManager.Item item : items) {
-            String key = item.name + item.owner;
-            if (rowCache.containsKey(key)) {
-                rowCache.get(key).update(item, currentUser);
-            } else {
-                ItemRow newRow = new ItemRow(item, currentUser);
-                rowCache.put(key, newRow);
-                itemListContainer.getChildren().add(newRow);
+    // --- LISTING: only when the user changes what is listed ---
+    // Everything, or one category, paged by key straight from the catalog index
+    private void showCatalog(String category, String currentUser) {
+        reloadListing = () -> showCatalog(category, currentUser);
+        PageSource source = (last, limit) -> {
+            ItemQuery q = new ItemQuery().category(category).page(0, limit);
+            if (last != null) q.after(last.id);
+            return AuctionCommands.query(q);
+        };
+        onFx(AuctionCommands.count(category), total -> showListing(source, total, currentUser), ex -> {});
+    }
+
+    // Search results are already a list of references sorted by id; page through them by key
+    private void showSearch(String q, String currentUser) {
+        reloadListing = () -> showSearch(q, currentUser);
+        onFx(AuctionCommands.search(q),
+                results -> showListing((last, limit) -> CompletableFuture.completedFuture(pageAfter(results, last, limit)),
+                        results.size(), currentUser), ex -> {});
+    }
+
+    private void showListing(PageSource source, int total, String currentUser) {
+        listingGeneration++;
+        pageSource = source;
+        totalResults = total;
+        pageLoading = false;
+        exhausted = false;
+        listed.clear();
+        listView.scrollTo(0);
+        resCount.setText(total + " results");
+        updateBalanceLabel(currentUser);
+        loadNextPage();
+    }
+
+    // One page in flight at a time, fetched off the FX thread
+    private void loadNextPage() {
+        if (pageLoading || exhausted) return;
+        pageLoading = true;
+        int generation = listingGeneration;
+        PageSource source = pageSource;
+        ItemManager.Item last = listed.isEmpty() ? null : listed.get(listed.size() - 1);
+        onFx(source.next(last, PAGE_SIZE), page -> {
+            if (generation != listingGeneration) return;
+            pageLoading = false;
+            exhausted = page.size() < PAGE_SIZE;
+            listed.addAll(page);
+        }, ex -> { if (generation == listingGeneration) pageLoading = false; });
+    }
+
+    // Keyset page over a list sorted by id
+    private static List<ItemManager.Item> pageAfter(List<ItemManager.Item> sorted, ItemManager.Item last, int limit) {
+        int from = 0;
+        if (last != null) {
+            int lo = 0, hi = sorted.size();
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (sorted.get(mid).id <= last.id) lo = mid + 1;
+                else hi = mid;
             }
+            from = lo;
         }
+        return new ArrayList<>(sorted.subList(from, Math.min(sorted.size(), from + limit)));
+    }
 
-        rowCache.keySet().removeIf(key -> {
-            if (!currentItemMap.containsKey(key)) {
-                itemListContainer.getChildren().remove(rowCache.get(key));
-                return true;
+    // --- DELTA REFRESH: FX-thread cost depends on how many items changed ---
+    private void applyEvents(List<ItemEvent> events, String currentUser) {
+        for (ItemEvent e : events) {
+            switch (e.type) {
+                case CREATED:
+                    if (viewFilter.test(e.item)) {
+                        totalResults++;
+                        // Newest id sorts last: show it now if the end is loaded, else its page will bring it
+                        if (exhausted) listed.add(e.item);
+                    }
+                    break;
+                case DELETED:
+                case ARCHIVED:
+                    if (viewFilter.test(e.item)) totalResults--;
+                    listed.remove(e.item);
+                    break;
+                case RELOAD:
+                    // The listing is fetched again, later events in this batch included
+                    reloadListing.run();
+                    return;
+                default: // BID, CLOSED
+                    ItemCell cell = visibleRows.get(e.item);
+                    if (cell != null) cell.row.update();
+                    break;
             }
-            return false;
-        });
+        }
+        resCount.setText(totalResults + " results");
+        updateBalanceLabel(currentUser);
+    }
+
+    // --- LIST CELL ---
+    // A cell is reused for whatever item scrolls into it; only the visible ones exist
+    private class ItemCell extends ListCell<ItemManager.Item> {
+        final ItemRow row;
+
+        ItemCell(String currentUser) {
+            row = new ItemRow(currentUser);
+            setText(null);
+            setStyle("-fx-background-color: white; -fx-padding: 0;");
+        }
+
+        @Override
+        protected void updateItem(ItemManager.Item item, boolean empty) {
+            ItemManager.Item previous = getItem();
+            if (previous != null && visibleRows.get(previous) == this) visibleRows.remove(previous);
+            super.updateItem(item, empty);
+
+            if (empty || item == null) { setGraphic(null); return; }
+            row.bind(item);
+            visibleRows.put(item, this);
+            setGraphic(row);
+            // Prefetch so the next page is usually there before the user reaches the end
+            if (getIndex() >= listed.size() - PREFETCH_ROWS) loadNextPage();
+        }
     }
 
     // --- ITEM ROW ---
+    // Built once per cell, then re-pointed at a different item with bind()
     private class ItemRow extends HBox {
-        private final Label lblTime, lblStatus, lblBid, lblTop;
+        private final String currentUser;
+        private ItemManager.Item item;
+        private final ImageView imageView = new ImageView();
+        private final Label title, sellerLbl, lblTime, lblStatus, lblBid, lblTop;
         private final VBox bidBox;
+        private final HBox bidAction;      // someone else's item
+        private final VBox ownerAction;    // your own item
+        private final TextField txtBid;
+        private final Button btnPlace, btnMax;
+        private boolean countdownEnded;
 
-        public ItemRow(ItemManager.Item item, String currentUser) {
+        public ItemRow(String currentUser) {
             super(20);
+            this.currentUser = currentUser;
             this.setPadding(new Insets(20, 0, 20, 0));
             this.setStyle("-fx-border-color: #eee; -fx-border-width: 0 0 1 0;");
 
-            ImageView imageView = new ImageView();
-            try { imageView.setImage(new Image(item.imagePath)); } catch (Exception e) {}
-            imageView.setFitWidth(160); imageView.setFitHeight(160); imageView.setPreserveRatio(true);
+            imageView.setFitWidth(ThumbnailCache.SIZE); imageView.setFitHeight(ThumbnailCache.SIZE); imageView.setPreserveRatio(true);
 
             VBox details = new VBox(5); HBox.setHgrow(details, Priority.ALWAYS);
-            Label title = new Label(item.name); title.setStyle("-fx-font-size: 18px; -fx-text-fill: #333;");
+            title = new Label(); title.setStyle("-fx-font-size: 18px; -fx-text-fill: #333;");
             lblTime = new Label();
             lblStatus = new Label();
-            Label sellerLbl = new Label("Seller: " + item.owner); sellerLbl.setStyle("-fx-text-fill: #777;");
+            sellerLbl = new Label(); sellerLbl.setStyle("-fx-text-fill: #777;");
             details.getChildren().addAll(title, lblTime, lblStatus, sellerLbl);
 
             bidBox = new VBox(8); bidBox.setAlignment(Pos.TOP_RIGHT); bidBox.setMinWidth(200);
             lblBid = new Label(); lblBid.setStyle("-fx-font-size: 20px; -fx-font-weight: bold;");
             lblTop = new Label(); lblTop.setStyle("-fx-font-size: 12px; -fx-text-fill: #555;");
 
-            if (!item.owner.equals(currentUser)) {
-                HBox action = new HBox(5); action.setAlignment(Pos.CENTER_RIGHT);
-                TextField txtBid = new TextField(); txtBid.setPromptText("Bid"); txtBid.setPrefWidth(80);
-                Button btnPlace = new Button("Bid");
-                btnPlace.setStyle("-fx-background-color: #3665f3; -fx-text-fill: white;");
-
-                btnPlace.setOnAction(e -> {
-                    try {
-                        String res = ItemManager.placeBid(item, currentUser, Double.parseDouble(txtBid.getText()));
-                        if(!res.equals("SUCCESS")) showAlert(res);
-                        else txtBid.clear();
-                    } catch(Exception ex) { showAlert("Invalid"); }
-                });
-                action.getChildren().addAll(txtBid, btnPlace);
-                bidBox.getChildren().addAll(lblBid, lblTop, action);
-            } else {
-                Button btnDel = new Button("Delete");
-                btnDel.setOnAction(e -> { ItemManager.deleteItem(item); refreshList(ItemManager.getAllItems(), currentUser); });
-                bidBox.getChildren().addAll(lblBid, lblTop, new Label("(Your Item)"), btnDel);
-            }
-
+            bidAction = new HBox(5); bidAction.setAlignment(Pos.CENTER_RIGHT);
+            txtBid = new TextField(); txtBid.setPromptText("Bid"); txtBid.setPrefWidth(80);
+            btnPlace = new Button("Bid");
+            btnPlace.setStyle("-fx-background-color: #3665f3; -fx-text-fill: white;");
+            btnPlace.setOnAction(e -> submitBid(false));
+            // Same amount as a maximum: the engine bids up to it on the user's behalf
+            btnMax = new Button("Max");
+            btnMax.setTooltip(new Tooltip("Bid automatically up to this amount"));
+            btnMax.setOnAction(e -> submitBid(true));
+            bidAction.getChildren().addAll(txtBid, btnPlace, btnMax);
+
+            Button btnDel = new Button("Delete");
+            btnDel.setOnAction(e -> AuctionCommands.deleteItem(item)); // the DELETED event removes the row
+            ownerAction = new VBox(8); ownerAction.setAlignment(Pos.TOP_RIGHT);
+            ownerAction.getChildren().addAll(new Label("(Your Item)"), btnDel);
+
+            bidBox.getChildren().addAll(lblBid, lblTop, bidAction, ownerAction);
             this.getChildren().addAll(imageView, details, bidBox);
-            update(item, currentUser);
         }
 
-        public void update(ItemManager.Item item, String currentUser) {
-            long timeLeft = item.endTime - System.currentTimeMillis();
-            String timeStr = (timeLeft > 0) ? String.format("%d min, %d sec left", TimeUnit.MILLISECONDS.toMinutes(timeLeft), TimeUnit.MILLISECONDS.toSeconds(timeLeft) % 60) : "ENDED";
+        private void submitBid(boolean proxy) {
+            double amount;
+            try { amount = Double.parseDouble(txtBid.getText()); } catch(Exception ex) { showAlert("Invalid"); return; }
+            // The bid runs off the FX thread; the row itself is repainted by the BID event
+            setBidding(true);
+            CompletableFuture<String> bid = proxy ? AuctionCommands.placeProxyBid(item, currentUser, amount)
+                    : AuctionCommands.placeBid(item, currentUser, amount);
+            onFx(bid, res -> {
+                setBidding(false);
+                if(!res.equals("SUCCESS")) showAlert(res);
+                else txtBid.clear();
+            }, ex -> { setBidding(false); showAlert(errorMessage(ex, "Invalid")); });
+        }
+
+        private void setBidding(boolean busy) { btnPlace.setDisable(busy); btnMax.setDisable(busy); }
 
-            lblTime.setText(timeStr);
-            lblTime.setStyle(timeLeft > 0 ? "-fx-text-fill: #e53238; -fx-font-weight: bold;" : "-fx-text-fill: gray;");
+        public void bind(ItemManager.Item item) {
+            if (this.item != item) {
+                this.item = item;
+                title.setText(item.name);
+                sellerLbl.setText("Seller: " + item.owner);
+                ThumbnailCache.load(item.imagePath, imageView); // placeholder now, thumbnail when decoded
+                txtBid.clear();
+                setBidding(false);
 
-            lblStatus.setText(item.isOpen ? "ACTIVE BIDDING" : "SOLD / EXPIRED");
-            lblStatus.setStyle("-fx-background-color: " + (item.isOpen ? "#e5ffe5" : "#eee") + "; -fx-padding: 3; -fx-font-size: 10px;");
+                boolean own = item.owner.equals(currentUser);
+                bidAction.setVisible(!own); bidAction.setManaged(!own);
+                ownerAction.setVisible(own); ownerAction.setManaged(own);
 
-            lblBid.setText("Current Bid: $" + item.currentBid);
-            lblTop.setText("High Bidder: " + (item.topBidder.equals("None") ? "-" : item.topBidder));
+                countdownEnded = false;
+                lblTime.setStyle("-fx-text-fill: #e53238; -fx-font-weight: bold;");
+            }
+            update();
+        }
 
-            bidBox.setDisable(!item.isOpen && !item.owner.equals(currentUser));
+        // Cheap per-second repaint: one label, restyled only when the countdown runs out
+        public void updateCountdown() {
+            long timeLeft = item.endTime() - System.currentTimeMillis();
+            if (timeLeft > 0) {
+                lblTime.setText(String.format("%d min, %d sec left", TimeUnit.MILLISECONDS.toMinutes(timeLeft), TimeUnit.MILLISECONDS.toSeconds(timeLeft) % 60));
+                if (countdownEnded) {
+                    countdownEnded = false;
+                    lblTime.setStyle("-fx-text-fill: #e53238; -fx-font-weight: bold;");
+                }
+            } else if (!countdownEnded) {
+                countdownEnded = true;
+                lblTime.setText("ENDED");
+                lblTime.setStyle("-fx-text-fill: gray;");
+            }
+        }
+
+        // Full repaint after a bid or close
+        public void update() {
+            updateCountdown();
+
+            lblStatus.setText(item.isOpen() ? "ACTIVE BIDDING" : "SOLD / EXPIRED");
+            lblStatus.setStyle("-fx-background-color: " + (item.isOpen() ? "#e5ffe5" : "#eee") + "; -fx-padding: 3; -fx-font-size: 10px;");
+
+            lblBid.setText("Current Bid: $" + Money.format(item.currentBidCents()));
+            lblTop.setText("High Bidder: " + (item.topBidder().equals("None") ? "-" : item.topBidder()));
+
+            bidBox.setDisable(!item.isOpen() && !item.owner.equals(currentUser));
         }
     }
 
     private void showWalletPopup(String username) {
         Stage popup = new Stage(); VBox box = new VBox(15); box.setPadding(new Insets(20)); box.setAlignment(Pos.CENTER);
-        Label current = new Label("Bal: $" + WalletManager.getBalance(username));
+        Label current = new Label("Bal: ...");
+        onFx(AuctionCommands.balance(username), b -> current.setText("Bal: $" + b), ex -> {});
         TextField txt = new TextField(); Button btn = new Button("Deposit");
-        btn.setOnAction(e -> { WalletManager.deposit(username, Double.parseDouble(txt.getText())); popup.close(); updateBalanceLabel(username); });
+        btn.setOnAction(e -> {
+            double amount;
+            try { amount = Double.parseDouble(txt.getText()); } catch(Exception ex) { showAlert("Invalid"); return; }
+            btn.setDisable(true);
+            onFx(AuctionCommands.deposit(username, amount),
+                    b -> { popup.close(); lblBalance.setText(String.format("$%.2f", b)); },
+                    ex -> { btn.setDisable(false); showAlert("Deposit failed"); });
+        });
         box.getChildren().addAll(new Label("Wallet"), current, txt, btn); popup.setScene(new Scene(box, 300, 200)); popup.show();
     }
-    private void updateBalanceLabel(String u) { lblBalance.setText(String.format("$%.2f", WalletManager.getBalance(u))); }
+
+    // Archived auctions are no longer in the catalog: sold or won ones are paged from the archive, newest first
+    private void showHistoryPopup(String username) {
+        Stage popup = new Stage(); VBox box = new VBox(10); box.setPadding(new Insets(20));
+        ToggleGroup roles = new ToggleGroup();
+        ToggleButton btnSold = new ToggleButton("Sold"); btnSold.setToggleGroup(roles); btnSold.setSelected(true);
+        ToggleButton btnWon = new ToggleButton("Won"); btnWon.setToggleGroup(roles);
+        ListView<String> rows = new ListView<>();
+        Button btnMore = new Button("More");
+        long[] last = { Long.MAX_VALUE };
+        int[] generation = { 0 };   // a page that arrives after the role changed is dropped
+
+        Runnable load = () -> {
+            int gen = generation[0];
+            boolean sold = btnSold.isSelected();
+            btnMore.setDisable(true);
+            onFx(AuctionCommands.history(username, sold, last[0], HISTORY_PAGE), page -> {
+                if (gen != generation[0]) return;
+                for (AuctionArchive.ArchivedItem a : page) rows.getItems().add(historyRow(a, sold));
+                if (!page.isEmpty()) last[0] = page.get(page.size() - 1).id;
+                btnMore.setDisable(page.size() < HISTORY_PAGE);
+            }, ex -> showAlert(errorMessage(ex, "History unavailable")));
+        };
+        roles.selectedToggleProperty().addListener((obs, old, now) -> {
+            if (now == null) { old.setSelected(true); return; }   // one role is always shown
+            generation[0]++;
+            last[0] = Long.MAX_VALUE;
+            rows.getItems().clear();
+            load.run();
+        });
+        btnMore.setOnAction(e -> load.run());
+        load.run();
+
+        box.getChildren().addAll(new HBox(5, btnSold, btnWon), rows, btnMore);
+        popup.setTitle("History"); popup.setScene(new Scene(box, 480, 420)); popup.show();
+    }
+
+    private static String historyRow(AuctionArchive.ArchivedItem a, boolean sold) {
+        String price = "$" + Money.format(a.finalBidCents);
+        if (!sold) return a.name + " - won from " + a.owner + " for " + price;
+        return a.name + (a.winner == null ? " - no bids" : " - sold to " + a.winner + " for " + price);
+    }
+    private void updateBalanceLabel(String u) { onFx(AuctionCommands.balance(u), b -> lblBalance.setText(String.format("$%.2f", b)), ex -> {}); }
+
+    // Applies a command's outcome on the FX thread
+    private <T> void onFx(CompletableFuture<T> command, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        command.whenCompleteAsync((result, ex) -> {
+            if (ex != null) { ex.printStackTrace(); onFailure.accept(ex); }
+            else onSuccess.accept(result);
+        }, Platform::runLater);
+    }
+    // Busy auth pool and server replies carry a message meant for the user; anything else gets the fallback
+    private static String errorMessage(Throwable ex, String fallback) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        return cause instanceof UserAuth.AuthBusyException || cause instanceof RemoteAuction.RemoteException
+                ? cause.getMessage() : fallback;
+    }
     private void showAlert(String m) { Alert a = new Alert(Alert.AlertType.INFORMATION); a.setContentText(m); a.show(); }
 }
\ No newline at end of file
@@ -0,0 +1,177 @@
+package org.example;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+// Cold tier for finished auctions.
+// A closed item stays in the live catalog for a grace period (so bidders still see "SOLD"), then ONE archiver
+// thread copies it into the archived_items table of users.db and evicts it from memory, the search index,
+// the catalog index and the journal. Live memory and per-tick work then follow open auctions only.
+//
+// Settings (system properties):
+//   auction.archive.graceSeconds  how long a closed auction stays listed (default 600)
+public class AuctionArchive {
+    static final long GRACE_MS = TimeUnit.SECONDS.toMillis(Long.getLong("auction.archive.graceSeconds", 600));
+    private static final int MAX_BATCH = 500;
+
+    // Everything a finished auction is remembered by. Prices are REAL dollars in the table, cents here.
+    public static final class ArchivedItem {
+        public final long id;
+        public final String name, category, owner, imagePath, condition;
+        public final long startingPriceCents, finalBidCents;
+        public final String winner;   // null when nobody bid
+        public final long endTime;
+
+        ArchivedItem(long id, String name, String category, String owner, String imagePath, String condition,
+                     long startingPriceCents, long finalBidCents, String winner, long endTime) {
+            this.id = id; this.name = name; this.category = category; this.owner = owner;
+            this.imagePath = imagePath; this.condition = condition; this.startingPriceCents = startingPriceCents;
+            this.finalBidCents = finalBidCents; this.winner = winner; this.endTime = endTime;
+        }
+    }
+
+    private static final class Pending implements Delayed {
+        final ItemManager.Item item;
+        final long archiveAt;
+
+        Pending(ItemManager.Item item) {
+            this.item = item;
+            this.archiveAt = item.endTime() + GRACE_MS;
+        }
+
+        @Override public long getDelay(TimeUnit unit) {
+            return unit.convert(archiveAt - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override public int compareTo(Delayed o) {
+            return Long.compare(archiveAt, ((Pending) o).archiveAt);
+        }
+    }
+
+    private static final DelayQueue<Pending> queue = new DelayQueue<>();
+
+    static {
+        try {
+            Database.write(s -> {
+                try (Statement st = s.createStatement()) {
+                    st.execute("CREATE TABLE IF NOT EXISTS archived_items (" +
+                            "id INTEGER PRIMARY KEY, " +
+                            "name TEXT NOT NULL, " +
+                            "category TEXT NOT NULL, " +
+                            "owner TEXT NOT NULL, " +
+                            "image_path TEXT, " +
+                            "condition TEXT, " +
+                            "starting_price REAL NOT NULL, " +
+                            "final_bid REAL NOT NULL, " +
+                            "winner TEXT, " +
+                            "end_time INTEGER NOT NULL)");
+                    // History pages are "newest first for one user": (user, id) serves both filter and order
+                    st.execute("CREATE INDEX IF NOT EXISTS idx_archived_owner ON archived_items(owner, id)");
+                    st.execute("CREATE INDEX IF NOT EXISTS idx_archived_winner ON archived_items(winner, id)");
+                }
+                return null;
+            });
+        } catch (SQLException e) { e.printStackTrace(); }
+
+        Thread archiver = new Thread(AuctionArchive::runArchiver, "auction-archiver");
+        archiver.setDaemon(true);
+        archiver.start();
+    }
+
+    // Called once an auction is closed (and again at startup for closed items still in the catalog)
+    static void schedule(ItemManager.Item item) {
+        if (!item.isOpen() && !item.removed) queue.add(new Pending(item));
+    }
+
+    private static void runArchiver() {
+        List<ItemManager.Item> batch = new ArrayList<>(MAX_BATCH);
+        while (true) {
+            try {
+                batch.add(queue.take().item);
+                Pending p;
+                while (batch.size() < MAX_BATCH && (p = queue.poll()) != null) batch.add(p.item);
+                archive(batch);
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                e.printStackTrace();
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // 1. COPY the batch into the archive in one transaction
+    // 2. EVICT from the live catalog; the journal forgets it, so a restart does not bring it back.
+    // A crash between the two just archives the same rows again (INSERT OR REPLACE).
+    private static void archive(List<ItemManager.Item> batch) throws SQLException {
+        List<ItemManager.Item> done = new ArrayList<>(batch.size());
+        String sql = "INSERT OR REPLACE INTO archived_items(id, name, category, owner, image_path, condition, " +
+                "starting_price, final_bid, winner, end_time) VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        Database.write(s -> {
+            PreparedStatement pstmt = s.prepare(sql);
+            for (ItemManager.Item item : batch) {
+                if (item.removed) continue;   // deleted by its seller during the grace period
+                ItemManager.BidState st = item.state();
+                pstmt.setLong(1, item.id);
+                pstmt.setString(2, item.name);
+                pstmt.setString(3, item.category);
+                pstmt.setString(4, item.owner);
+                pstmt.setString(5, item.imagePath);
+                pstmt.setString(6, item.condition);
+                pstmt.setDouble(7, Money.toDollars(item.startingPriceCents));
+                pstmt.setDouble(8, Money.toDollars(st.currentBidCents));
+                pstmt.setString(9, st.hasBidder() ? st.topBidder : null);
+                pstmt.setLong(10, st.endTime);
+                pstmt.addBatch();
+                done.add(item);
+            }
+            if (!done.isEmpty()) pstmt.executeBatch();
+            return null;
+        });
+        ItemManager.evictArchived(done);
+    }
+
+    // --- HISTORY (keyset paged, newest first) ---
+    // Pass Long.MAX_VALUE for the first page, then the id of the last item returned.
+    public static List<ArchivedItem> soldBy(String owner, long beforeId, int limit) {
+        return page("SELECT * FROM archived_items WHERE owner = ? AND id < ? ORDER BY id DESC LIMIT ?", owner, beforeId, limit);
+    }
+
+    public static List<ArchivedItem> wonBy(String winner, long beforeId, int limit) {
+        return page("SELECT * FROM archived_items WHERE winner = ? AND id < ? ORDER BY id DESC LIMIT ?", winner, beforeId, limit);
+    }
+
+    private static List<ArchivedItem> page(String sql, String user, long beforeId, int limit) {
+        try {
+            return Database.read(s -> {
+                PreparedStatement pstmt = s.prepare(sql);
+                pstmt.setString(1, user);
+                pstmt.setLong(2, beforeId);
+                pstmt.setInt(3, limit);
+                List<ArchivedItem> out = new ArrayList<>();
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        out.add(new ArchivedItem(rs.getLong("id"), rs.getString("name"), rs.getString("category"),
+                                rs.getString("owner"), rs.getString("image_path"), rs.getString("condition"),
+                                Money.toCents(rs.getDouble("starting_price")), Money.toCents(rs.getDouble("final_bid")),
+                                rs.getString("winner"),
+                                rs.getLong("end_time")));
+                    }
+                }
+                return out;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return Collections.emptyList();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.example;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Asynchronous entry point for everything that mutates auctions or wallets.
+// Each command runs on its own worker thread and completes a CompletableFuture, so callers
+// (the JavaFX screens, or any non-UI client) never block on a bid race or a SQLite round trip.
+// Results complete on the worker thread; UI callers hop back with whenCompleteAsync(..., Platform::runLater).
+// The same calls reach a shared AuctionServer instead when -Dauction.server is set.
+public class AuctionCommands {
+
+    private static final ExecutorService executor = newExecutor("auction-command-");
+
+    // Virtual thread per task when the runtime has them (Java 21+), otherwise an unbounded pool of daemon threads.
+    // Commands are short and mostly waiting, so neither variant needs a bound.
+    static ExecutorService newExecutor(String threadPrefix) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger n = new AtomicInteger();
+            ThreadFactory factory = r -> {
+                Thread t = new Thread(r, threadPrefix + n.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            };
+            return Executors.newCachedThreadPool(factory);
+        }
+    }
+
+    // --- ACCOUNTS ---
+    // Completes with the session token, or null for wrong credentials
+    public static CompletableFuture<String> login(String username, String password) {
+        return RemoteAuction.ENABLED ? RemoteAuction.login(username, password) : UserAuth.loginAsync(username, password);
+    }
+
+    public static CompletableFuture<Boolean> register(String username, String password) {
+        return RemoteAuction.ENABLED ? RemoteAuction.register(username, password) : UserAuth.registerAsync(username, password);
+    }
+
+    // --- COMMANDS ---
+    // With -Dauction.server every command goes to the AuctionServer instead (RemoteAuction); the server takes
+    // the user from the session token, so the bidder/owner/username arguments only matter locally.
+
+    // Completes with "SUCCESS" or the rejection message from ItemManager.placeBid
+    public static CompletableFuture<String> placeBid(ItemManager.Item item, String bidder, double amount) {
+        if (RemoteAuction.ENABLED) return RemoteAuction.placeBid(item, amount, false);
+        return CompletableFuture.supplyAsync(() -> ItemManager.placeBid(item, bidder, amount), executor);
+    }
+
+    // Same, for a maximum the engine bids up to (ItemManager.placeProxyBid)
+    public static CompletableFuture<String> placeProxyBid(ItemManager.Item item, String bidder, double maxAmount) {
+        if (RemoteAuction.ENABLED) return RemoteAuction.placeBid(item, maxAmount, true);
+        return CompletableFuture.supplyAsync(() -> ItemManager.placeProxyBid(item, bidder, maxAmount), executor);
+    }
+
+    // A burst of bids in one call; one result per command, in order (ItemManager.placeBids)
+    public static CompletableFuture<List<String>> placeBids(List<ItemManager.BidCommand> commands) {
+        if (RemoteAuction.ENABLED) return RemoteAuction.placeBids(commands);
+        return CompletableFuture.supplyAsync(() -> ItemManager.placeBids(commands), executor);
+    }
+
+    // Completes with the balance after the deposit
+    public static CompletableFuture<Double> deposit(String username, double amount) {
+        if (RemoteAuction.ENABLED) return RemoteAuction.deposit(amount);
+        return CompletableFuture.supplyAsync(() -> {
+            WalletManager.deposit(username, amount);
+            return WalletManager.getBalance(username);
+        }, executor);
+    }
+
+    public static CompletableFuture<Void> createAuction(String name, double price, String category, String owner,
+                                                        String imagePath, String condition, int durationMinutes) {
+        if (RemoteAuction.ENABLED) return RemoteAuction.createAuction(name, price, category, imagePath, condition, durationMinutes);
+        return CompletableFuture.runAsync(() ->
+                ItemManager.createAuction(name, price, category, owner, imagePath, condition, durationMinutes), executor);
+    }
+
+    public static CompletableFuture<Void> deleteItem(ItemManager.Item item) {
+        if (RemoteAuction.ENABLED) return RemoteAuction.deleteItem(item);
+        return CompletableFuture.runAsync(() -> ItemManager.deleteItem(item), executor);
+    }
+
+    // --- QUERIES ---
+    // The first lookup of a user loads the account from SQLite, so this is asynchronous too
+    public static CompletableFuture<Double> balance(String username) {
+        if (RemoteAuction.ENABLED) return RemoteAuction.balance();
+        return CompletableFuture.supplyAsync(() -> WalletManager.getBalance(username), executor);
+    }
+
+    public static CompletableFuture<List<ItemManager.Item>> query(ItemQuery q) {
+        if (RemoteAuction.ENABLED) return RemoteAuction.query(q);
+        return CompletableFuture.supplyAsync(() -> ItemManager.query(q), executor);
+    }
+
+    public static CompletableFuture<Integer> count(String category) {
+        if (RemoteAuction.ENABLED) return RemoteAuction.count(category);
+        return CompletableFuture.supplyAsync(() -> ItemManager.countItems(category), executor);
+    }
+
+    public static CompletableFuture<List<ItemManager.Item>> search(String q) {
+        if (RemoteAuction.ENABLED) return RemoteAuction.search(q);
+        return CompletableFuture.supplyAsync(() -> ItemManager.searchItems(q), executor);
+    }
+
+    // A page of the user's finished auctions, sold or won, newest first: Long.MAX_VALUE, then the last id seen
+    public static CompletableFuture<List<AuctionArchive.ArchivedItem>> history(String username, boolean sold, long beforeId, int limit) {
+        if (RemoteAuction.ENABLED) return RemoteAuction.history(sold, beforeId, limit);
+        return CompletableFuture.supplyAsync(() -> sold ? AuctionArchive.soldBy(username, beforeId, limit)
+                : AuctionArchive.wonBy(username, beforeId, limit), executor);
+    }
+
+    // Any other read that should stay off the FX thread
+    public static <T> CompletableFuture<T> fetch(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(query, executor);
+    }
+
+    // --- CHANGE EVENTS ---
+    // Local engine events, or the server's event feed
+    public static void subscribe(Consumer<ItemEvent> listener) {
+        if (RemoteAuction.ENABLED) RemoteAuction.addListener(listener);
+        else ItemManager.addListener(listener);
+    }
+
+    public static void unsubscribe(Consumer<ItemEvent> listener) {
+        if (RemoteAuction.ENABLED) RemoteAuction.removeListener(listener);
+        else ItemManager.removeListener(listener);
+    }
+
+    // Stops accepting commands and waits briefly for the ones in flight
+    public static void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
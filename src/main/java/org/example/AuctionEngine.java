@@ -2,35 +2,74 @@ package org.example;
 
 import javafx.application.Platform;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
 public class AuctionEngine extends Thread {
 
-    private boolean running = true;
-    private final Runnable uiRefreshCallback;
+    // UI side of the engine. Both methods are always called on the FX thread.
+    public interface Listener {
+        // Everything that changed since the last call, in publish order
+        void onItemEvents(List<ItemEvent> events);
+        // Once a second, for countdown repaints only
+        void onTick();
+    }
+
+    private volatile boolean running = true;
+    private final Listener uiListener;
 
-    // We pass a "callback" so the engine can tell the UI to update when an item expires
-    public AuctionEngine(Runnable uiRefreshCallback) {
-        this.uiRefreshCallback = uiRefreshCallback;
+    // Events arrive from bidding threads and from this thread; the FX thread drains them in batches
+    private final ConcurrentLinkedQueue<ItemEvent> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final Consumer<ItemEvent> subscription = this::publish;
+
+    // We pass a "listener" so the engine can tell the UI exactly what changed
+    public AuctionEngine(Listener uiListener) {
+        this.uiListener = uiListener;
     }
 
     public void stopEngine() {
         running = false;
     }
 
+    // Coalesces bursts: however many events arrive, at most one runLater is in flight
+    private void publish(ItemEvent event) {
+        pending.add(event);
+        if (drainScheduled.compareAndSet(false, true)) Platform.runLater(this::drain);
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+        List<ItemEvent> batch = new ArrayList<>();
+        ItemEvent e;
+        while ((e = pending.poll()) != null) batch.add(e);
+        if (!batch.isEmpty()) uiListener.onItemEvents(batch);
+    }
+
     @Override
     public void run() {
         System.out.println("✅ Auction Engine Started");
+        AuctionCommands.subscribe(subscription);
 
+        long nextTick = System.currentTimeMillis() + 1000;
         while (running) {
             try {
-                // 1. Tick every second
-                Thread.sleep(1000);
-
-                // 2. Check for expired items (Logic)
-                ItemManager.checkExpirations();
+                // 1. Sleep until the next auction deadline or the next UI tick, whichever comes first.
+                // Closed auctions reach the UI as CLOSED events straight away.
+                // Against a server, deadlines are its job: just wait for the tick.
+                long wait = Math.max(0, nextTick - System.currentTimeMillis());
+                if (RemoteAuction.ENABLED) Thread.sleep(wait);
+                else ItemManager.awaitExpirations(wait);
 
-                // 3. ALWAYS Update the UI (Visuals)
-                // This ensures the countdown timer (59s, 58s...) updates live
-                Platform.runLater(uiRefreshCallback);
+                // 2. Once a second, let the UI repaint its countdowns (59s, 58s...)
+                long now = System.currentTimeMillis();
+                if (now >= nextTick) {
+                    nextTick = now + 1000;
+                    Platform.runLater(uiListener::onTick);
+                }
 
             } catch (InterruptedException e) {
                 System.out.println("Auction Engine Stopped");
@@ -38,5 +77,6 @@ public class AuctionEngine extends Thread {
                 e.printStackTrace();
             }
         }
+        AuctionCommands.unsubscribe(subscription);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,515 @@
+package org.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Headless engine: ONE process owns items.txt / users.db and every client talks to it over HTTP,
+// so two desktops can no longer load the same files and overwrite each other.
+//   java -cp <app classpath> org.example.AuctionServer
+//   clients: -Dauction.server=http://127.0.0.1:8080 (see RemoteAuction)
+//
+// The JDK HttpServer is selector based: connections are kept alive and pipelined requests on one
+// connection are answered in order. Handlers run on virtual threads when the runtime has them
+// (AuctionCommands.newExecutor), so a long-polling /events call costs no platform thread.
+//
+// Endpoints take form-encoded parameters (query string or POST body) and answer JSON.
+// Amounts are dollars with 2 decimals. A leader's proxy maximum is never sent.
+//   POST /register  username, password                   {"created":true}
+//   POST /login     username, password                   {"token":"..."}, 401 when wrong
+//   GET  /items     category, open, after, limit         [item, ...] in listing order
+//   GET  /count     category                             {"count":n}
+//   GET  /search    q                                    [item, ...]
+//   GET  /events    after, wait (ms)                     {"seq":n,"gap":false,"events":[{"type":"BID","item":{...}}]}
+//   POST /bid       token, item, amount, proxy           {"result":"SUCCESS"} or the rejection message
+//   POST /bids      token, then item/amount/proxy per bid {"results":[...]}
+//   POST /sell      token, name, price, category, image, condition, minutes
+//   POST /delete    token, item
+//   POST /deposit   token, amount                        {"balance":...}
+//   GET  /balance   token                                {"balance":...,"locked":...}
+//   GET  /ledger    token, format (csv or ndjson)        the user's statement, streamed
+//   GET  /history   token, role (sold or won), after, limit   [archived item, ...] newest first
+//
+// As one partition of a cluster (-Dauction.partition, see Partitions and ClusterLauncher) the server only holds
+// the items and users that hash to it; clients talk to PartitionRouter, which sends each call to its owner.
+// Account calls for a user homed elsewhere answer 421. Partitions settle wallets with each other through:
+//   POST /wallet/hold|release|commit|credit|cancel   key, user, amount, op   (see PartitionWallets)
+//   POST /wallet/balance                             key, user
+//
+// Settings (system properties):
+//   auction.server.host   interface to bind (default 127.0.0.1)
+//   auction.server.port   (default 8080)
+public class AuctionServer {
+    static final String HOST = System.getProperty("auction.server.host", "127.0.0.1");
+    static final int PORT = Integer.getInteger("auction.server.port", 8080);
+
+    public static void main(String[] args) throws IOException {
+        UserAuth.initDB();
+        if (Partitions.SELF >= 0) PartitionWallets.recover();
+        ItemManager.addListener(AuctionServer::publish);   // first touch also loads the catalog
+
+        Thread expirations = new Thread(AuctionServer::runExpirations, "auction-expirations");
+        expirations.setDaemon(true);
+        expirations.start();
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(HOST, PORT), 0);
+        route(server, "POST", "/register", AuctionServer::register);
+        route(server, "POST", "/login", AuctionServer::login);
+        route(server, "GET", "/items", AuctionServer::items);
+        route(server, "GET", "/count", AuctionServer::count);
+        route(server, "GET", "/search", AuctionServer::search);
+        route(server, "GET", "/events", AuctionServer::events);
+        route(server, "POST", "/bid", AuctionServer::bid);
+        route(server, "POST", "/bids", AuctionServer::bids);
+        route(server, "POST", "/sell", AuctionServer::sell);
+        route(server, "POST", "/delete", AuctionServer::delete);
+        route(server, "POST", "/deposit", AuctionServer::deposit);
+        route(server, "GET", "/balance", AuctionServer::balance);
+        route(server, "GET", "/ledger", AuctionServer::ledger);
+        route(server, "GET", "/history", AuctionServer::history);
+        if (Partitions.SELF >= 0) {
+            for (String kind : new String[] { "hold", "release", "commit", "credit", "cancel" }) {
+                route(server, "POST", "/wallet/" + kind, (p, ex) -> walletCall(kind, p));
+            }
+            route(server, "POST", "/wallet/balance", AuctionServer::walletBalance);
+            warnForeignItems();
+        }
+        server.setExecutor(AuctionCommands.newExecutor("auction-http-"));
+        server.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(1);
+            shutdownEngine();
+        }, "auction-server-shutdown"));
+        System.out.println("✅ Auction Server listening on http://" + HOST + ":" + PORT
+                + (Partitions.SELF >= 0 ? " (partition " + Partitions.SELF + " of " + Partitions.URLS.size() + ")" : ""));
+    }
+
+    // Same order as AuctionApp.stop(): pending events, wallets, then the ledger, then the database
+    private static void shutdownEngine() {
+        EventBus.drain();
+        WalletManager.flush();
+        LedgerWriter.shutdown();
+        try { Ledger.checkpointAll(); } catch (SQLException e) { e.printStackTrace(); }
+        Database.shutdown();
+    }
+
+    // Deadlines are the server's job now; clients only repaint their countdowns
+    private static void runExpirations() {
+        while (true) {
+            try {
+                ItemManager.awaitExpirations(1000);
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // Items left behind by a different partition count: the router will not send anyone to them
+    private static void warnForeignItems() {
+        int foreign = 0;
+        for (ItemManager.Item i : ItemManager.getAllItems()) if (!Partitions.ownsItem(i.id)) foreign++;
+        if (foreign > 0) System.err.println("⚠️ " + foreign + " items in this data directory belong to another partition");
+    }
+
+    // --- ROUTING ---
+    // Shared with PartitionRouter
+    interface Handler {
+        // The JSON reply, or null when the handler wrote the response itself
+        String handle(Params p, HttpExchange ex) throws Exception;
+    }
+
+    static final class HttpError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        final int status;
+
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    // Thrown once a reply's status and part of its body have gone out: the connection is dropped instead of
+    // closed, so the client sees a cut stream rather than a complete-looking reply
+    static final class StreamAborted extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        StreamAborted(Throwable cause) { super(cause); }
+    }
+
+    static void route(HttpServer server, String method, String path, Handler handler) {
+        server.createContext(path, ex -> {
+            boolean aborted = false;
+            try {
+                // The body is always read to the end, so the connection can carry the next request
+                Params p = Params.parse(ex);
+                if (!ex.getRequestMethod().equals(method)) throw new HttpError(405, method + " only");
+                if (!ex.getRequestURI().getPath().equals(path)) throw new HttpError(404, "Not found");
+                String body = handler.handle(p, ex);
+                if (body != null) send(ex, 200, body);
+            } catch (StreamAborted e) {
+                // Left unclosed: the HTTP server drops the connection when the handler throws
+                aborted = true;
+                e.getCause().printStackTrace();
+                throw e;
+            } catch (HttpError e) {
+                send(ex, e.status, error(e.getMessage()));
+            } catch (UserAuth.AuthBusyException | WalletManager.WalletUnavailableException e) {
+                send(ex, 503, error(e.getMessage()));
+            } catch (IllegalArgumentException e) {
+                // Also NumberFormatException from a bad amount or id
+                send(ex, 400, error(e.getMessage()));
+            } catch (Exception e) {
+                e.printStackTrace();
+                send(ex, 500, error("Internal error"));
+            } finally {
+                if (!aborted) ex.close();
+            }
+        });
+    }
+
+    static void send(HttpExchange ex, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = ex.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    static String error(String message) {
+        return Json.quote(new StringBuilder("{\"error\":"), message).append('}').toString();
+    }
+
+    // Query string and form body, in order; names may repeat (/bids)
+    static final class Params {
+        final List<String> names = new ArrayList<>(), values = new ArrayList<>();
+
+        static Params parse(HttpExchange ex) throws IOException {
+            Params p = new Params();
+            p.add(ex.getRequestURI().getRawQuery());
+            p.add(new String(ex.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            return p;
+        }
+
+        private void add(String encoded) {
+            if (encoded == null || encoded.isEmpty()) return;
+            for (String pair : encoded.split("&")) {
+                if (pair.isEmpty()) continue;
+                int eq = pair.indexOf('=');
+                names.add(URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8));
+                values.add(eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+
+        String get(String name) {
+            int i = names.indexOf(name);
+            return i < 0 ? null : values.get(i);
+        }
+
+        String require(String name) {
+            String v = get(name);
+            if (v == null || v.isEmpty()) throw new HttpError(400, "Missing " + name);
+            return v;
+        }
+
+        List<String> all(String name) {
+            List<String> out = new ArrayList<>();
+            for (int i = 0; i < names.size(); i++) if (names.get(i).equals(name)) out.add(values.get(i));
+            return out;
+        }
+
+        long longValue(String name, long fallback) {
+            String v = get(name);
+            return v == null || v.isEmpty() ? fallback : Long.parseLong(v);
+        }
+    }
+
+    // The signed session token (UserAuth.issueSession) names the caller; request parameters never do
+    private static String user(Params p) {
+        String user = UserAuth.verifySession(p.require("token"));
+        if (user == null) throw new HttpError(401, "Session expired, sign in again");
+        return user;
+    }
+
+    // Account data is only in the user's home partition
+    private static String home(String user) {
+        if (!Partitions.isHome(user)) throw new HttpError(421, "Wrong partition for this user");
+        return user;
+    }
+
+    private static ItemManager.Item item(String id) {
+        ItemManager.Item item = ItemManager.getItem(Long.parseLong(id));
+        if (item == null) throw new HttpError(404, "No such item");
+        return item;
+    }
+
+    // Prices and bids: Money.parse accepts a sign, the market does not
+    private static double positive(String amount, String what) {
+        long cents = Money.parse(amount);
+        if (cents <= 0) throw new HttpError(400, what + " must be positive");
+        return Money.toDollars(cents);
+    }
+
+    // --- ACCOUNTS ---
+    private static String register(Params p, HttpExchange ex) {
+        boolean created = UserAuth.registerAsync(home(p.require("username")), p.require("password")).join();
+        return "{\"created\":" + created + "}";
+    }
+
+    private static String login(Params p, HttpExchange ex) {
+        String token = UserAuth.loginAsync(home(p.require("username")), p.require("password")).join();
+        if (token == null) throw new HttpError(401, "Invalid credentials");
+        return Json.quote(new StringBuilder("{\"token\":"), token).append('}').toString();
+    }
+
+    // --- CATALOG ---
+    private static String items(Params p, HttpExchange ex) {
+        ItemQuery q = new ItemQuery().category(p.get("category")).page(0, (int) p.longValue("limit", 50));
+        if ("true".equals(p.get("open"))) q.openOnly();
+        q.after(p.longValue("after", Long.MIN_VALUE));
+        return items(ItemManager.query(q));
+    }
+
+    private static String count(Params p, HttpExchange ex) {
+        return "{\"count\":" + ItemManager.countItems(p.get("category")) + "}";
+    }
+
+    private static String search(Params p, HttpExchange ex) {
+        return items(ItemManager.searchItems(p.require("q").toLowerCase()));
+    }
+
+    private static String items(List<ItemManager.Item> items) {
+        StringBuilder sb = new StringBuilder(items.size() * 256 + 2).append('[');
+        for (int i = 0; i < items.size(); i++) {
+            if (i > 0) sb.append(',');
+            item(sb, items.get(i));
+        }
+        return sb.append(']').toString();
+    }
+
+    static StringBuilder item(StringBuilder sb, ItemManager.Item i) {
+        ItemManager.BidState s = i.state();
+        sb.append("{\"id\":").append(i.id).append(",\"name\":");
+        Json.quote(sb, i.name).append(",\"category\":");
+        Json.quote(sb, i.category).append(",\"owner\":");
+        Json.quote(sb, i.owner).append(",\"image\":");
+        Json.quote(sb, i.imagePath).append(",\"condition\":");
+        Json.quote(sb, i.condition).append(",\"startingPrice\":");
+        Money.append(sb, i.startingPriceCents).append(",\"currentBid\":");
+        Money.append(sb, s.currentBidCents).append(",\"topBidder\":");
+        Json.quote(sb, s.topBidder).append(",\"endTime\":").append(s.endTime);
+        return sb.append(",\"open\":").append(s.isOpen).append(",\"version\":").append(s.version).append('}');
+    }
+
+    // --- EVENT FEED ---
+    // Items are encoded when a caller collects them, with their latest state; clients keep the highest version
+    private static final EventFeed<ItemEvent> feed = new EventFeed<>((sb, e) -> {
+        sb.append("{\"type\":\"").append(e.type).append("\",\"item\":");
+        item(sb, e.item).append('}');
+    });
+
+    private static void publish(ItemEvent e) { feed.publish(e); }
+
+    private static String events(Params p, HttpExchange ex) throws InterruptedException {
+        return feed.poll(p.longValue("after", -1), p.longValue("wait", 0));
+    }
+
+    // --- BIDDING ---
+    private static String bid(Params p, HttpExchange ex) {
+        String user = user(p);
+        ItemManager.Item item = item(p.require("item"));
+        double amount = positive(p.require("amount"), "Bid");
+        String result = "true".equals(p.get("proxy"))
+                ? ItemManager.placeProxyBid(item, user, amount)
+                : ItemManager.placeBid(item, user, amount);
+        return Json.quote(new StringBuilder("{\"result\":"), result).append('}').toString();
+    }
+
+    // One ItemManager.placeBids call for the whole request; unknown items answer like closed ones
+    private static String bids(Params p, HttpExchange ex) {
+        String user = user(p);
+        List<String> ids = p.all("item"), amounts = p.all("amount"), proxies = p.all("proxy");
+        if (ids.size() != amounts.size()) throw new HttpError(400, "One amount per item");
+        List<ItemManager.BidCommand> commands = new ArrayList<>(ids.size());
+        List<Integer> positions = new ArrayList<>(ids.size());
+        String[] results = new String[ids.size()];
+        for (int i = 0; i < ids.size(); i++) {
+            ItemManager.Item item = ItemManager.getItem(Long.parseLong(ids.get(i)));
+            if (item == null) { results[i] = "Auction has ended!"; continue; }
+            boolean proxy = i < proxies.size() && "true".equals(proxies.get(i));
+            commands.add(new ItemManager.BidCommand(item, user, positive(amounts.get(i), "Bid"), proxy));
+            positions.add(i);
+        }
+        List<String> placed = ItemManager.placeBids(commands);
+        for (int k = 0; k < placed.size(); k++) results[positions.get(k)] = placed.get(k);
+
+        StringBuilder sb = new StringBuilder("{\"results\":[");
+        for (int i = 0; i < results.length; i++) {
+            if (i > 0) sb.append(',');
+            Json.quote(sb, results[i]);
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static String sell(Params p, HttpExchange ex) {
+        String user = user(p);
+        String category = p.require("category");
+        if (!ItemQuery.CATEGORIES.contains(category)) throw new HttpError(400, "Unknown category");
+        int minutes = (int) p.longValue("minutes", 10);
+        if (minutes <= 0) throw new HttpError(400, "Duration must be positive");
+        ItemManager.createAuction(text(p.require("name")), positive(p.require("price"), "Price"), category, user,
+                text(p.require("image")), p.get("condition") == null ? "New" : text(p.get("condition")), minutes);
+        return "{}";
+    }
+
+    // Listing text is one line: ItemCodec escapes it for the journal, and line breaks have no place in a title
+    private static String text(String v) {
+        for (int i = 0; i < v.length(); i++) {
+            if (Character.isISOControl(v.charAt(i))) throw new HttpError(400, "Control characters are not allowed");
+        }
+        return v;
+    }
+
+    private static String delete(Params p, HttpExchange ex) {
+        String user = user(p);
+        ItemManager.Item item = item(p.require("item"));
+        if (!item.owner.equals(user)) throw new HttpError(403, "Not your item");
+        ItemManager.deleteItem(item);
+        return "{}";
+    }
+
+    // --- WALLET AND LEDGER ---
+    private static String deposit(Params p, HttpExchange ex) {
+        String user = home(user(p));
+        long cents = Money.parse(p.require("amount"));
+        if (cents <= 0) throw new HttpError(400, "Deposit must be positive");
+        WalletManager.deposit(user, Money.toDollars(cents));
+        return balanceJson(user);
+    }
+
+    private static String balance(Params p, HttpExchange ex) {
+        return balanceJson(home(user(p)));
+    }
+
+    private static String balanceJson(String user) {
+        StringBuilder sb = new StringBuilder("{\"balance\":");
+        Money.append(sb, WalletManager.getBalanceCents(user)).append(",\"locked\":");
+        return Money.append(sb, WalletManager.getLockedBalanceCents(user)).append('}').toString();
+    }
+
+    // Streamed with chunked encoding: the statement is never held in memory. The 200 goes out with the first
+    // buffered bytes, after the query has run, so a failing query is still answered 500; a failure after that
+    // aborts the reply.
+    private static String ledger(Params p, HttpExchange ex) throws IOException, SQLException {
+        String user = home(user(p));
+        Ledger.Format format = "csv".equalsIgnoreCase(p.get("format")) ? Ledger.Format.CSV : Ledger.Format.NDJSON;
+        ex.getResponseHeaders().set("Content-Type", format == Ledger.Format.CSV
+                ? "text/csv; charset=utf-8" : "application/x-ndjson; charset=utf-8");
+        LazyBody body = new LazyBody(ex);
+        Writer out = new OutputStreamWriter(body, StandardCharsets.UTF_8);
+        try {
+            Ledger.exportUser(user, format, out);
+            out.flush();
+        } catch (IOException | SQLException | RuntimeException e) {
+            // Not closed: closing would end the chunked body cleanly
+            if (body.started) throw new StreamAborted(e);
+            throw e;
+        }
+        if (!body.started) ex.sendResponseHeaders(200, -1);   // empty ledger
+        return null;
+    }
+
+    // Sends the 200 when the first byte is written
+    private static final class LazyBody extends OutputStream {
+        private final HttpExchange ex;
+        private OutputStream out;
+        boolean started;
+
+        LazyBody(HttpExchange ex) { this.ex = ex; }
+
+        private OutputStream out() throws IOException {
+            if (!started) {
+                started = true;
+                ex.sendResponseHeaders(200, 0);
+                out = ex.getResponseBody();
+            }
+            return out;
+        }
+
+        @Override public void write(int b) throws IOException { out().write(b); }
+        @Override public void write(byte[] b, int off, int len) throws IOException { out().write(b, off, len); }
+        @Override public void flush() throws IOException { if (started) out.flush(); }
+    }
+
+    // --- HISTORY ---
+    private static final int MAX_HISTORY_PAGE = 200;
+
+    // Finished auctions from the archive, newest first; `after` is the last id of the previous page.
+    // Not limited to the home partition: a won item is archived by the partition that listed it.
+    private static String history(Params p, HttpExchange ex) {
+        String user = user(p);
+        long before = p.longValue("after", Long.MAX_VALUE);
+        int limit = (int) Math.min(Math.max(p.longValue("limit", 50), 1), MAX_HISTORY_PAGE);
+        List<AuctionArchive.ArchivedItem> page;
+        switch (p.require("role")) {
+            case "sold": page = AuctionArchive.soldBy(user, before, limit); break;
+            case "won": page = AuctionArchive.wonBy(user, before, limit); break;
+            default: throw new HttpError(400, "Role must be sold or won");
+        }
+        StringBuilder sb = new StringBuilder(page.size() * 256 + 2).append('[');
+        for (int i = 0; i < page.size(); i++) {
+            if (i > 0) sb.append(',');
+            archived(sb, page.get(i));
+        }
+        return sb.append(']').toString();
+    }
+
+    private static void archived(StringBuilder sb, AuctionArchive.ArchivedItem a) {
+        sb.append("{\"id\":").append(a.id).append(",\"name\":");
+        Json.quote(sb, a.name).append(",\"category\":");
+        Json.quote(sb, a.category).append(",\"owner\":");
+        Json.quote(sb, a.owner).append(",\"image\":");
+        Json.quote(sb, a.imagePath).append(",\"condition\":");
+        Json.quote(sb, a.condition).append(",\"startingPrice\":");
+        Money.append(sb, a.startingPriceCents).append(",\"finalBid\":");
+        Money.append(sb, a.finalBidCents).append(",\"winner\":");
+        Json.quote(sb, a.winner).append(",\"endTime\":").append(a.endTime).append('}');
+    }
+
+    // --- PARTITION PEERS ---
+    // Only other partitions know the cluster key; the wallet must be homed here
+    private static String peerUser(Params p) {
+        byte[] key = Partitions.CLUSTER_KEY.getBytes(StandardCharsets.UTF_8);
+        String given = p.get("key");
+        if (key.length == 0 || given == null || !MessageDigest.isEqual(key, given.getBytes(StandardCharsets.UTF_8))) {
+            throw new HttpError(403, "Not a partition of this cluster");
+        }
+        return home(p.require("user"));
+    }
+
+    private static String walletCall(String kind, Params p) {
+        String user = peerUser(p);
+        long cents = Money.parse(p.require("amount"));
+        if (cents < 0) throw new HttpError(400, "Negative amount");
+        PartitionWallets.Outcome o = PartitionWallets.apply(kind, user, cents, p.require("op"));
+        return "{\"held\":" + (o == PartitionWallets.Outcome.HELD) + ",\"outcome\":\"" + o + "\"}";
+    }
+
+    private static String walletBalance(Params p, HttpExchange ex) {
+        return balanceJson(peerUser(p));
+    }
+}
@@ -0,0 +1,43 @@
+package org.example;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+// Minimum raise over a given price, used when the engine resolves proxy (maximum) bids.
+// Configured with -Dauction.bid.increments as "fromPrice:increment" pairs in dollars, for example the default:
+//   0:0.05,1:0.25,5:0.50,25:1,100:2.50,250:5,500:10,1000:25,2500:50,5000:100
+// meaning "from $25 up to $100 the next bid is at least $1 more", and so on.
+public final class BidIncrements {
+    private BidIncrements() {}
+
+    static final String DEFAULT = "0:0.05,1:0.25,5:0.50,25:1,100:2.50,250:5,500:10,1000:25,2500:50,5000:100";
+
+    // Parallel arrays in cents, sorted by threshold
+    private static final long[] FROM, STEP;
+
+    static {
+        TreeMap<Long, Long> table = new TreeMap<>();
+        for (String pair : System.getProperty("auction.bid.increments", DEFAULT).split(",")) {
+            int colon = pair.indexOf(':');
+            table.put(Money.parse(pair.substring(0, colon).trim()), Money.parse(pair.substring(colon + 1).trim()));
+        }
+        table.putIfAbsent(0L, 1L);
+        FROM = new long[table.size()];
+        STEP = new long[table.size()];
+        int i = 0;
+        for (Map.Entry<Long, Long> e : table.entrySet()) {
+            FROM[i] = e.getKey();
+            STEP[i++] = Math.max(1, e.getValue());
+        }
+    }
+
+    // The increment that applies at this price
+    public static long at(long priceCents) {
+        int i = FROM.length - 1;
+        while (i > 0 && FROM[i] > priceCents) i--;
+        return STEP[i];
+    }
+
+    // Smallest bid that beats this price
+    public static long next(long priceCents) { return priceCents + at(priceCents); }
+}
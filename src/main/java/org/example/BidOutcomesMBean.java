@@ -0,0 +1,15 @@
+package org.example;
+
+// JMX view of the placeBid result counters (org.example:type=BidOutcomes)
+public interface BidOutcomesMBean {
+    long getSuccess();
+    long getBidTooLow();
+    long getInsufficientFunds();
+    long getOwnItem();
+    long getAuctionEnded();
+    // Bids accepted only to be beaten at once by the leader's proxy maximum
+    long getOutbidByMaximum();
+    long getOther();
+    // Compare-and-set attempts that lost to a concurrent bid or close and had to re-read the state
+    long getCasRetries();
+}
@@ -0,0 +1,175 @@
+package org.example;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Secondary indexes over the item catalog: per-category buckets, open auctions by end time,
+// and every item by current bid. Queries walk the index that already has the requested order
+// and stop as soon as the page is full.
+//
+// Each item is indexed through an immutable Entry holding the values it was filed under.
+// reindex() swaps the entry, so index order never depends on fields that change under it.
+// With the column store enabled, the id-ordered sets (all, byCategory) are left empty and ColumnStore
+// answers what they would: listing-order queries, category listings and counts.
+public class CatalogIndex {
+
+    static final class Entry {
+        final ItemManager.Item item;
+        final String category;
+        final long endTime;
+        final long currentBid;   // cents
+        final boolean isOpen;
+
+        Entry(ItemManager.Item item) {
+            ItemManager.BidState s = item.state();
+            this.item = item; this.category = item.category; this.endTime = s.endTime;
+            this.currentBid = s.currentBidCents; this.isOpen = s.isOpen;
+        }
+
+        boolean matches(ItemQuery q) {
+            if (q.openOnly && !isOpen) return false;
+            if (q.category != null && !category.equalsIgnoreCase(q.category)) return false;
+            return currentBid >= q.minBid && currentBid <= q.maxBid;
+        }
+    }
+
+    private static final Comparator<Entry> BY_ID = Comparator.comparingLong(e -> e.item.id);
+    private static final Comparator<Entry> BY_END = Comparator.<Entry>comparingLong(e -> e.endTime).thenComparing(BY_ID);
+    private static final Comparator<Entry> BY_BID = Comparator.<Entry>comparingLong(e -> e.currentBid).thenComparing(BY_ID);
+
+    private static final Map<ItemManager.Item, Entry> entries = new HashMap<>();
+    private static final NavigableSet<Entry> all = new TreeSet<>(BY_ID);
+    private static final NavigableSet<Entry> openByEndTime = new TreeSet<>(BY_END);
+    private static final NavigableSet<Entry> byBid = new TreeSet<>(BY_BID);
+    // Keyed by lower-cased name; the fixed ItemQuery.CATEGORIES buckets always exist
+    private static final Map<String, NavigableSet<Entry>> byCategory = new HashMap<>();
+    private static final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    static {
+        for (String c : ItemQuery.CATEGORIES) byCategory.put(c.toLowerCase(), new TreeSet<>(BY_ID));
+    }
+
+    // --- MAINTENANCE ---
+    // Call after any change to the item's BidState. Always files the LATEST state, so
+    // concurrent callers may run in any order and the index still ends up current.
+    // A deleted or archived item is never filed again, even by a bid that raced its removal.
+    static void reindex(ItemManager.Item item) {
+        lock.writeLock().lock();
+        try {
+            // `removed` is set before remove() takes the lock, so either this sees it or remove() runs after us
+            if (item.removed) return;
+            unfile(entries.get(item));
+            Entry e = new Entry(item);
+            entries.put(item, e);
+            byBid.add(e);
+            if (e.isOpen) openByEndTime.add(e);
+            if (ColumnStore.ENABLED) {
+                ColumnStore.update(item);
+            } else {
+                all.add(e);
+                byCategory.computeIfAbsent(e.category.toLowerCase(), k -> new TreeSet<>(BY_ID)).add(e);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    static void remove(ItemManager.Item item) {
+        lock.writeLock().lock();
+        try {
+            unfile(entries.remove(item));
+            ColumnStore.remove(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void unfile(Entry e) {
+        if (e == null) return;
+        all.remove(e);
+        byBid.remove(e);
+        openByEndTime.remove(e);
+        NavigableSet<Entry> bucket = byCategory.get(e.category.toLowerCase());
+        if (bucket != null) bucket.remove(e);
+    }
+
+    // --- QUERIES ---
+    static List<ItemManager.Item> byCategory(String category) {
+        if (ColumnStore.ENABLED) return ColumnStore.byCategory(category);
+        lock.readLock().lock();
+        try {
+            NavigableSet<Entry> bucket = byCategory.get(category.toLowerCase());
+            List<ItemManager.Item> out = new ArrayList<>(bucket == null ? 0 : bucket.size());
+            if (bucket != null) for (Entry e : bucket) out.add(e.item);
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Number of listed items, or of one category when category != null
+    static int count(String category) {
+        if (ColumnStore.ENABLED) return ColumnStore.count(category);
+        lock.readLock().lock();
+        try {
+            if (category == null) return all.size();
+            NavigableSet<Entry> bucket = byCategory.get(category.toLowerCase());
+            return bucket == null ? 0 : bucket.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<ItemManager.Item> query(ItemQuery q) {
+        // Listing order with filters is a plain scan, which the column store does over primitive memory
+        if (ColumnStore.ENABLED && q.sort == ItemQuery.Sort.LISTING_ORDER) return ColumnStore.query(q);
+
+        lock.readLock().lock();
+        try {
+            Iterable<Entry> driver = driverFor(q);
+            List<ItemManager.Item> page = new ArrayList<>(Math.min(q.limit, 256));
+            int skipped = 0;
+            for (Entry e : driver) {
+                if (!e.matches(q)) continue;
+                if (skipped++ < q.offset) continue;
+                page.add(e.item);
+                if (page.size() >= q.limit) break;
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Picks the index that already yields entries in the requested order with the fewest non-matches
+    private static Iterable<Entry> driverFor(ItemQuery q) {
+        switch (q.sort) {
+            case ENDING_SOONEST:
+                // Closed auctions have no meaningful deadline, so ENDING_SOONEST only ever yields open ones
+                return openByEndTime;
+            case PRICE_LOW_TO_HIGH:
+                return bidRange(q);
+            case PRICE_HIGH_TO_LOW:
+                return bidRange(q).descendingSet();
+            default:
+                // Listing order: walk the category bucket (or everything) and filter the rest
+                NavigableSet<Entry> set = q.category == null ? all : byCategory.get(q.category.toLowerCase());
+                if (set == null) return Collections.emptyList();
+                return q.afterId == Long.MIN_VALUE ? set : set.tailSet(probe(0, q.afterId), false);
+        }
+    }
+
+    private static NavigableSet<Entry> bidRange(ItemQuery q) {
+        if (!q.hasBidRange()) return byBid;
+        if (q.minBid > q.maxBid) return Collections.emptyNavigableSet();
+        return byBid.subSet(probe(q.minBid, Long.MIN_VALUE), true, probe(q.maxBid, Long.MAX_VALUE), true);
+    }
+
+    // Search key that sorts before/after every real entry with the same bid (or, by id alone, right at that id)
+    private static Entry probe(long bid, long id) {
+        ItemManager.Item fake = new ItemManager.Item("", 0, "", "", "", "", bid, "None", 0, false);
+        fake.id = id;
+        return new Entry(fake);
+    }
+}
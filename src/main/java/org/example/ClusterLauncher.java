@@ -0,0 +1,107 @@
+package org.example;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// A whole partitioned engine on one machine:
+//   java -cp <app classpath> org.example.Launcher --cluster 4
+// starts 4 partition processes (AuctionServer) on loopback ports auction.server.port + 1 .. + 4, each with its
+// own data directory <auction.dataDir>/partition-<n> (catalog, journal, users.db), then runs the
+// PartitionRouter on auction.server.port in this process. Clients connect to the router as to one server.
+// Other auction.* settings given to the launcher are passed on to every partition. The cluster key is taken from
+// AUCTION_CLUSTER_KEY if set (random otherwise) and reaches the partitions through their environment only.
+// Stopping the launcher stops the partitions, each through its normal shutdown.
+//
+// The partition count must stay the same for a data directory: items are not moved between partitions.
+public class ClusterLauncher {
+    private static final String HOST = "127.0.0.1";
+    private static final long START_TIMEOUT_MS = 60_000;
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        if (count < 1) throw new IllegalArgumentException("At least one partition");
+        int port = Integer.getInteger("auction.server.port", 8080);
+        Path dataDir = Paths.get(System.getProperty("auction.dataDir", "."));
+        String key = System.getenv(Partitions.CLUSTER_KEY_ENV);
+        if (key == null || key.isEmpty()) {
+            byte[] random = new byte[32];
+            new SecureRandom().nextBytes(random);
+            key = Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+        }
+
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < count; i++) urls.add("http://" + HOST + ":" + (port + 1 + i));
+        // Before the router's classes read them
+        System.setProperty("auction.partitions", String.join(",", urls));
+        System.setProperty("auction.cluster.key", key);
+        System.setProperty("auction.server.host", HOST);
+
+        List<Process> partitions = new ArrayList<>();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> stop(partitions), "cluster-shutdown"));
+        for (int i = 0; i < count; i++) {
+            Path dir = dataDir.resolve("partition-" + i);
+            Files.createDirectories(dir);
+            List<String> command = new ArrayList<>();
+            command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            for (String name : System.getProperties().stringPropertyNames()) {
+                // The cluster key never goes on a command line: ps shows those to every local user
+                if (name.startsWith("auction.") && !name.startsWith("auction.server.") && !name.equals("auction.dataDir")
+                        && !name.startsWith("auction.partition") && !name.equals("auction.cluster.key")) {
+                    command.add("-D" + name + "=" + System.getProperty(name));
+                }
+            }
+            command.add("-Dauction.dataDir=" + dir);
+            command.add("-Dauction.server.host=" + HOST);
+            command.add("-Dauction.server.port=" + (port + 1 + i));
+            command.add("-Dauction.partition=" + i);
+            command.add("-Dauction.partitions=" + String.join(",", urls));
+            command.add(AuctionServer.class.getName());
+            synchronized (partitions) {
+                ProcessBuilder pb = new ProcessBuilder(command).inheritIO();
+                pb.environment().put(Partitions.CLUSTER_KEY_ENV, key);
+                partitions.add(pb.start());
+            }
+        }
+        for (int i = 0; i < count; i++) awaitListening(partitions.get(i), port + 1 + i);
+
+        PartitionRouter.main(new String[0]);
+    }
+
+    private static void awaitListening(Process p, int port) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + START_TIMEOUT_MS;
+        while (System.currentTimeMillis() < deadline) {
+            if (!p.isAlive()) throw new IllegalStateException("Partition on port " + port + " exited with " + p.exitValue());
+            try {
+                new Socket(HOST, port).close();
+                return;
+            } catch (IOException notYet) {
+                Thread.sleep(100);
+            }
+        }
+        throw new IllegalStateException("Partition on port " + port + " did not start");
+    }
+
+    // SIGTERM first, so every partition drains its events and flushes its wallets
+    private static void stop(List<Process> partitions) {
+        synchronized (partitions) {
+            for (Process p : partitions) p.destroy();
+            for (Process p : partitions) {
+                try {
+                    if (!p.waitFor(15, TimeUnit.SECONDS)) p.destroyForcibly();
+                } catch (InterruptedException e) {
+                    p.destroyForcibly();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Optional columnar catalog (-Dauction.store=offheap).
+// The hot numeric fields of every item live in off-heap columns, one slot per item in id order:
+//
+//   id | currentBid | startingPrice | endTime | flags | ownerId | bidderId | categoryId
+//   (money columns in cents)
+//
+// When enabled it REPLACES CatalogIndex's id-ordered trees (all items, per-category buckets): listing-order
+// queries, category listings and counts are linear passes over contiguous primitive memory, and the heap keeps
+// no per-item tree nodes for them. Strings are interned in a dictionary, so the columns hold small int codes
+// and every Item shares one instance of each owner/category/path.
+// Price sorts and expirations stay where they are: they need an order other than id, which CatalogIndex.byBid
+// and ExpirationScheduler already keep, and a pass over every slot would cost more than walking those.
+//
+// The Item and its BidState stay the source of truth (bids are a compare-and-set on the BidState);
+// CatalogIndex keeps these columns current on every reindex/remove.
+public class ColumnStore {
+    public static final boolean ENABLED = "offheap".equalsIgnoreCase(System.getProperty("auction.store", "heap"));
+
+    private static final byte FREE = 0, OPEN = 1, CLOSED = 2;
+    private static final int INITIAL_SLOTS = 1024;
+    // Compaction runs once this many slots (and at least a quarter of them) are FREE
+    private static final int COMPACT_MIN_FREE = 1024;
+
+    // --- STRING DICTIONARY ---
+    // Guarded by `strings`. Codes only change in compact(), under the write lock as well.
+    private static final Map<String, Integer> codes = new HashMap<>();
+    private static final List<String> strings = new ArrayList<>();
+
+    // Same content, one shared instance (identity when the store is off)
+    static String canonical(String s) {
+        if (!ENABLED || s == null) return s;
+        synchronized (strings) { return strings.get(code(s)); }
+    }
+
+    // Caller holds `strings`
+    private static int code(String s) {
+        Integer c = codes.get(s);
+        if (c != null) return c;
+        strings.add(s);
+        codes.put(s, strings.size() - 1);
+        return strings.size() - 1;
+    }
+
+    private static int codeOf(String s) {
+        synchronized (strings) { return code(s); }
+    }
+
+    // --- COLUMNS ---
+    private static ByteBuffer ids, bids, startPrices, endTimes, flags, owners, bidders, categories;
+    private static ItemManager.Item[] items = new ItemManager.Item[0];
+    private static final Map<ItemManager.Item, Integer> slots = new IdentityHashMap<>();
+    private static int size, free;   // slots in use, of which FREE
+    private static final Map<String, Integer> perCategory = new HashMap<>();   // live items, by lower-cased name
+    private static final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    static {
+        if (ENABLED) allocate(INITIAL_SLOTS);
+    }
+
+    // Resizes every column, copying the used prefix
+    private static void allocate(int capacity) {
+        ids = resize(ids, capacity * 8);
+        bids = resize(bids, capacity * 8);
+        startPrices = resize(startPrices, capacity * 8);
+        endTimes = resize(endTimes, capacity * 8);
+        flags = resize(flags, capacity);
+        owners = resize(owners, capacity * 4);
+        bidders = resize(bidders, capacity * 4);
+        categories = resize(categories, capacity * 4);
+        ItemManager.Item[] next = new ItemManager.Item[capacity];
+        System.arraycopy(items, 0, next, 0, size);
+        items = next;
+    }
+
+    private static ByteBuffer resize(ByteBuffer old, int bytes) {
+        ByteBuffer b = ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+        if (old != null) {
+            ByteBuffer src = old.duplicate();
+            src.clear().limit(Math.min(src.capacity(), bytes));
+            b.put(src);
+            b.clear();
+        }
+        return b;
+    }
+
+    // --- MAINTENANCE (called by CatalogIndex) ---
+    // Slots stay sorted by id. New ids are almost always the largest so far and are appended; one that
+    // lost a race with a concurrent create is inserted in place. Removed items leave a FREE slot behind
+    // until compact() closes the gaps.
+    static void update(ItemManager.Item item) {
+        if (!ENABLED) return;
+        lock.writeLock().lock();
+        try {
+            // Read under the lock, so whichever caller files last files the latest state
+            ItemManager.BidState s = item.state();
+            Integer slot = slots.get(item);
+            if (slot == null) {
+                if (size == items.length) allocate(items.length * 2);
+                slot = firstSlotAfter(item.id);
+                if (slot < size) shiftUp(slot);
+                size++;
+                slots.put(item, slot);
+                items[slot] = item;
+                ids.putLong(slot * 8, item.id);
+                startPrices.putLong(slot * 8, item.startingPriceCents);
+                owners.putInt(slot * 4, codeOf(item.owner));
+                categories.putInt(slot * 4, codeOf(item.category.toLowerCase()));
+                perCategory.merge(item.category.toLowerCase(), 1, Integer::sum);
+            }
+            bids.putLong(slot * 8, s.currentBidCents);
+            endTimes.putLong(slot * 8, s.endTime);
+            bidders.putInt(slot * 4, codeOf(s.topBidder));
+            flags.put(slot, s.isOpen ? OPEN : CLOSED);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Opens a gap at `from` by moving every later slot up by one
+    private static void shiftUp(int from) {
+        shiftUp(ids, 8, from); shiftUp(bids, 8, from); shiftUp(startPrices, 8, from); shiftUp(endTimes, 8, from);
+        shiftUp(flags, 1, from); shiftUp(owners, 4, from); shiftUp(bidders, 4, from); shiftUp(categories, 4, from);
+        System.arraycopy(items, from, items, from + 1, size - from);
+        for (int slot = from + 1; slot <= size; slot++) {
+            if (items[slot] != null) slots.put(items[slot], slot);
+        }
+    }
+
+    private static void shiftUp(ByteBuffer b, int width, int from) {
+        for (int i = size * width - 1; i >= from * width; i--) b.put(i + width, b.get(i));
+    }
+
+    static void remove(ItemManager.Item item) {
+        if (!ENABLED) return;
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.remove(item);
+            if (slot != null) {
+                flags.put(slot, FREE);
+                items[slot] = null;
+                free++;
+                perCategory.merge(item.category.toLowerCase(), -1, Integer::sum);
+                if (free >= COMPACT_MIN_FREE && free * 4 >= size) compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Under the write lock: slides live slots down over the FREE ones (order is kept), gives back column
+    // memory once three quarters of it is unused, and rebuilds the dictionary from what the live slots use.
+    // Strings only go stale through removed items (bidders are users, who stay), so this also bounds the
+    // dictionary. Amortized over the removals that trigger it, each costs O(1).
+    private static void compact() {
+        int live = 0;
+        for (int slot = 0; slot < size; slot++) {
+            if (flags.get(slot) == FREE) continue;
+            if (slot != live) moveSlot(slot, live);
+            live++;
+        }
+        for (int slot = live; slot < size; slot++) items[slot] = null;
+        size = live;
+        free = 0;
+        perCategory.values().removeIf(n -> n == 0);
+        if (items.length > INITIAL_SLOTS && size * 4 < items.length) {
+            allocate(Math.max(INITIAL_SLOTS, Integer.highestOneBit(Math.max(size, 1)) * 2));
+        }
+
+        synchronized (strings) {
+            List<String> old = new ArrayList<>(strings);
+            codes.clear();
+            strings.clear();
+            for (int slot = 0; slot < size; slot++) {
+                ItemManager.Item item = items[slot];
+                owners.putInt(slot * 4, code(old.get(owners.getInt(slot * 4))));
+                bidders.putInt(slot * 4, code(old.get(bidders.getInt(slot * 4))));
+                categories.putInt(slot * 4, code(old.get(categories.getInt(slot * 4))));
+                // Keeps live items' text shared with the items created after them
+                code(item.name); code(item.imagePath); code(item.condition);
+            }
+        }
+    }
+
+    private static void moveSlot(int from, int to) {
+        ids.putLong(to * 8, ids.getLong(from * 8));
+        bids.putLong(to * 8, bids.getLong(from * 8));
+        startPrices.putLong(to * 8, startPrices.getLong(from * 8));
+        endTimes.putLong(to * 8, endTimes.getLong(from * 8));
+        flags.put(to, flags.get(from));
+        owners.putInt(to * 4, owners.getInt(from * 4));
+        bidders.putInt(to * 4, bidders.getInt(from * 4));
+        categories.putInt(to * 4, categories.getInt(from * 4));
+        items[to] = items[from];
+        slots.put(items[to], to);
+    }
+
+    // --- SCANS ---
+    // LISTING_ORDER query as one pass over the columns, starting at the keyset cursor
+    static List<ItemManager.Item> query(ItemQuery q) {
+        List<ItemManager.Item> page = new ArrayList<>(Math.min(q.limit, 256));
+        lock.readLock().lock();
+        try {
+            // A category never seen has no code and no items
+            Integer cat = q.category == null ? null : existingCode(q.category.toLowerCase());
+            if (q.category != null && cat == null) return page;
+            int skipped = 0;
+            for (int slot = firstSlotAfter(q.afterId); slot < size; slot++) {
+                byte f = flags.get(slot);
+                if (f == FREE || (q.openOnly && f != OPEN)) continue;
+                if (cat != null && categories.getInt(slot * 4) != cat) continue;
+                long bid = bids.getLong(slot * 8);
+                if (bid < q.minBid || bid > q.maxBid) continue;
+                if (skipped++ < q.offset) continue;
+                page.add(items[slot]);
+                if (page.size() >= q.limit) break;
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Every item of one category, in id order
+    static List<ItemManager.Item> byCategory(String category) {
+        List<ItemManager.Item> out = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Integer cat = existingCode(category.toLowerCase());
+            if (cat == null) return out;
+            for (int slot = 0; slot < size; slot++) {
+                if (categories.getInt(slot * 4) == cat && flags.get(slot) != FREE) out.add(items[slot]);
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Number of listed items, or of one category when category != null
+    static int count(String category) {
+        lock.readLock().lock();
+        try {
+            if (category == null) return size - free;
+            return perCategory.getOrDefault(category.toLowerCase(), 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Integer existingCode(String s) {
+        synchronized (strings) { return codes.get(s); }
+    }
+
+    // Slots are sorted by id: binary search the first id greater than afterId
+    private static int firstSlotAfter(long afterId) {
+        if (afterId == Long.MIN_VALUE) return 0;
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (ids.getLong(mid * 8) <= afterId) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
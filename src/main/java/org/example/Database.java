@@ -0,0 +1,147 @@
+package org.example;
+
+import java.nio.file.Paths;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Shared data-access layer for users.db.
+// Readers borrow from a bounded pool of long-lived connections, all writes go through ONE writer connection.
+// In WAL mode readers never wait for the writer, so lookups scale with cores instead of queueing on the file lock.
+public class Database {
+    // Data files live in the working directory unless -Dauction.dataDir points elsewhere
+    private static final String DB_URL = "jdbc:sqlite:" +
+            Paths.get(System.getProperty("auction.dataDir", "."), "users.db");
+    private static final int READ_POOL_SIZE = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private static final int BUSY_TIMEOUT_MS = 5000;
+
+    // Unit of work executed against a pooled session
+    public interface SqlWork<T> {
+        T run(Session s) throws SQLException;
+    }
+
+    // A long-lived connection plus its cache of prepared statements.
+    // Statements are reused across calls, so callers must close their ResultSets but never the statement.
+    public static class Session {
+        private final Connection conn;
+        private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+        Session(Connection conn) { this.conn = conn; }
+
+        public PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement ps = statements.get(sql);
+            if (ps == null) {
+                ps = conn.prepareStatement(sql);
+                statements.put(sql, ps);
+            } else {
+                ps.clearParameters();
+            }
+            return ps;
+        }
+
+        public Statement createStatement() throws SQLException { return conn.createStatement(); }
+
+        void close() {
+            for (PreparedStatement ps : statements.values()) {
+                try { ps.close(); } catch (SQLException ignored) {}
+            }
+            statements.clear();
+            try { conn.close(); } catch (SQLException ignored) {}
+        }
+    }
+
+    private static final BlockingQueue<Session> readers = new ArrayBlockingQueue<>(READ_POOL_SIZE);
+    private static final List<Session> allReaders = new ArrayList<>();
+    private static final ReentrantLock writeLock = new ReentrantLock();
+    private static Session writer;
+
+    static {
+        try {
+            // 1. WRITER: opened first so WAL is switched on before any reader attaches
+            Connection w = open();
+            try (Statement st = w.createStatement()) {
+                st.execute("PRAGMA journal_mode = WAL");
+            }
+            w.setAutoCommit(false);
+            writer = new Session(w);
+
+            // 2. READERS: fixed pool, never grows
+            for (int i = 0; i < READ_POOL_SIZE; i++) {
+                Connection r = open();
+                try (Statement st = r.createStatement()) {
+                    st.execute("PRAGMA query_only = ON");
+                }
+                Session s = new Session(r);
+                allReaders.add(s);
+                readers.add(s);
+            }
+        } catch (SQLException e) { e.printStackTrace(); }
+    }
+
+    private static Connection open() throws SQLException {
+        Connection conn = DriverManager.getConnection(DB_URL);
+        try (Statement st = conn.createStatement()) {
+            st.execute("PRAGMA busy_timeout = " + BUSY_TIMEOUT_MS);
+            st.execute("PRAGMA synchronous = NORMAL");
+        }
+        return conn;
+    }
+
+    // --- READ PATH ---
+    // Borrows a pooled reader. Inside a write() the writer session is used instead,
+    // so a transaction always sees its own uncommitted changes.
+    public static <T> T read(SqlWork<T> work) throws SQLException {
+        if (writeLock.isHeldByCurrentThread()) return work.run(writer);
+
+        Session s;
+        try {
+            s = readers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+        try {
+            return work.run(s);
+        } finally {
+            readers.add(s);
+        }
+    }
+
+    // --- WRITE PATH ---
+    // Single writer, one transaction per outermost call. Nested write() calls join the outer transaction.
+    public static <T> T write(SqlWork<T> work) throws SQLException {
+        writeLock.lock();
+        try {
+            if (writeLock.getHoldCount() > 1) return work.run(writer);
+
+            try {
+                T result = work.run(writer);
+                writer.conn.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                writer.conn.rollback();
+                throw e;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // True while the current thread is inside write()
+    static boolean inWriteTransaction() { return writeLock.isHeldByCurrentThread(); }
+
+    public static void shutdown() {
+        writeLock.lock();
+        try {
+            if (writer != null) writer.close();
+            for (Session s : allReaders) s.close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
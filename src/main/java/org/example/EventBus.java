@@ -0,0 +1,159 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+// One ordered stream of catalog changes, in the style of the LMAX Disruptor.
+// Producers (bidding threads, the expiration thread, the archiver) claim a sequence number, fill the
+// preallocated slot and mark it available: no allocation and no lock per event, and a producer only
+// waits when the ring is full. Every consumer has its own thread and its own sequence, and handles
+// everything available as ONE batch, so a slow disk never holds up a bid:
+//
+//   journal      ItemJournal.onEvent        records appended with one flush per batch
+//   settlement   ItemManager.settle         the winner pays the seller when an auction closes
+//   notify       ItemManager.notifyListeners  UI engine / server event feed, off the mutating thread
+//   metrics      Metrics.onEvent            publish-to-handle lag
+//
+// A slot is reused only once every consumer has moved past it.
+//
+// Settings (system properties):
+//   auction.events.ringSize   slots, rounded down to a power of two (default 8192)
+public final class EventBus {
+    private EventBus() {}
+
+    static final int SIZE = Integer.highestOneBit(Math.max(2, Integer.getInteger("auction.events.ringSize", 8192)));
+    private static final int MASK = SIZE - 1;
+    private static final int SPINS = 100;
+
+    // One preallocated slot. Valid only inside Handler.onEvent: the slot is refilled once every consumer is past it.
+    public static final class Event {
+        public ItemEvent.Type type;
+        public ItemManager.Item item;
+        public ItemManager.BidState state;   // the state this change produced
+        long publishedAt;                    // System.nanoTime()
+    }
+
+    public interface Handler {
+        // endOfBatch: nothing more is available right now, so flush whatever was buffered
+        void onEvent(Event event, long sequence, boolean endOfBatch);
+    }
+
+    private static final Event[] slots = new Event[SIZE];
+    // Sequence last published into each slot: with several producers the cursor alone does not say
+    // which claimed slots are filled
+    private static final AtomicLongArray published = new AtomicLongArray(SIZE);
+    private static final AtomicLong claimed = new AtomicLong(-1);
+    private static final List<Processor> processors = new ArrayList<>();
+
+    static {
+        for (int i = 0; i < SIZE; i++) {
+            slots[i] = new Event();
+            published.set(i, -1);
+        }
+        start("journal", ItemJournal::onEvent);
+        start("settlement", ItemManager::settle);
+        start("notify", ItemManager::notifyListeners);
+        start("metrics", Metrics::onEvent);
+    }
+
+    private static void start(String name, Handler handler) {
+        Processor p = new Processor(handler);
+        Thread t = new Thread(p, "events-" + name);
+        t.setDaemon(true);
+        p.thread = t;
+        processors.add(p);
+        t.start();
+    }
+
+    // --- PRODUCERS ---
+    public static void publish(ItemEvent.Type type, ItemManager.Item item, ItemManager.BidState state) {
+        // 1. CLAIM the next sequence
+        long seq = claimed.incrementAndGet();
+
+        // 2. WAIT only if the ring is full: the slowest consumer still needs this slot's previous event
+        for (int spins = 0; seq - SIZE > slowest(); spins++) {
+            if (spins < SPINS) Thread.onSpinWait();
+            else LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+        }
+
+        // 3. FILL and PUBLISH: the volatile store makes the fields visible to every consumer
+        int index = (int) (seq & MASK);
+        Event e = slots[index];
+        e.type = type; e.item = item; e.state = state; e.publishedAt = System.nanoTime();
+        published.set(index, seq);
+
+        for (Processor p : processors) if (p.parked) LockSupport.unpark(p.thread);
+    }
+
+    private static long slowest() {
+        long min = Long.MAX_VALUE;
+        for (Processor p : processors) min = Math.min(min, p.sequence.get());
+        return min;
+    }
+
+    // Blocks until every consumer has handled everything published so far (shutdown, tests of state on disk)
+    public static void drain() {
+        long target = claimed.get();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (slowest() < target && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    // --- CONSUMERS ---
+    private static final class Processor implements Runnable {
+        final Handler handler;
+        final AtomicLong sequence = new AtomicLong(-1);   // last sequence handled
+        volatile boolean parked;
+        Thread thread;
+
+        Processor(Handler handler) { this.handler = handler; }
+
+        @Override
+        public void run() {
+            long next = 0;
+            while (true) {
+                long last = highestPublished(next);
+                if (last < next) {
+                    await(next);
+                    continue;
+                }
+                // The whole available run is one batch
+                for (long n = next; n <= last; n++) {
+                    try {
+                        handler.onEvent(slots[(int) (n & MASK)], n, n == last);
+                    } catch (Exception ex) {
+                        ex.printStackTrace();
+                    }
+                }
+                sequence.set(last);
+                next = last + 1;
+            }
+        }
+
+        // Spin briefly, then park until a producer unparks us. Producers check `parked` after publishing
+        // and we check for events after setting it, so one of the two always sees the other.
+        private void await(long next) {
+            for (int i = 0; i < SPINS; i++) {
+                if (isPublished(next)) return;
+                Thread.onSpinWait();
+            }
+            parked = true;
+            if (!isPublished(next)) LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(100));
+            parked = false;
+        }
+    }
+
+    private static boolean isPublished(long seq) { return published.get((int) (seq & MASK)) == seq; }
+
+    // Last of the contiguous published sequences starting at `from`, or from - 1 if none
+    private static long highestPublished(long from) {
+        long n = from;
+        while (isPublished(n)) n++;
+        return n - 1;
+    }
+}
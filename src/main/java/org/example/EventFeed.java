@@ -0,0 +1,67 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+// The last WINDOW events, numbered, for the /events long-poll (AuctionServer, and PartitionRouter merging the
+// feeds of its partitions). A caller asks for everything after its number; one that fell further behind gets
+// "gap":true and should reload what it shows. So does every caller whose reply spans a gap marker (markGap):
+// events the feed itself never received.
+final class EventFeed<T> {
+    private static final int WINDOW = 4096;
+    static final long MAX_WAIT_MS = 30_000;
+
+    private final Object[] ring = new Object[WINDOW];
+    private final BiConsumer<StringBuilder, T> encoder;
+    private long published;   // events so far; the next one gets this number
+    private long lastGap = -1;   // number of the newest gap marker
+
+    // encoder writes one element of the "events" array
+    EventFeed(BiConsumer<StringBuilder, T> encoder) { this.encoder = encoder; }
+
+    synchronized void publish(T e) {
+        ring[(int) (published % WINDOW)] = e;
+        published++;
+        notifyAll();
+    }
+
+    // Takes a number like an event but carries none; wakes waiting callers so they hear of it at once
+    synchronized void markGap() {
+        ring[(int) (published % WINDOW)] = null;
+        lastGap = published++;
+        notifyAll();
+    }
+
+    // {"seq":n,"gap":false,"events":[...]}
+    @SuppressWarnings("unchecked")
+    String poll(long after, long waitMillis) throws InterruptedException {
+        long wait = Math.min(Math.max(waitMillis, 0), MAX_WAIT_MS);
+        List<T> batch = new ArrayList<>();
+        long seq;
+        boolean gap;
+        synchronized (this) {
+            // after = -1: "where is the feed now", answered at once
+            if (after >= 0) {
+                long deadline = System.currentTimeMillis() + wait;
+                long left;
+                while (published <= after && (left = deadline - System.currentTimeMillis()) > 0) wait(left);
+            }
+            seq = published;
+            long from = after < 0 ? seq : Math.max(after, seq - WINDOW);
+            gap = after >= 0 && (from > after || lastGap >= after);
+            for (long n = from; n < seq; n++) {
+                T e = (T) ring[(int) (n % WINDOW)];
+                if (e != null) batch.add(e);
+            }
+        }
+        // Encoded outside the lock
+        StringBuilder sb = new StringBuilder(64 + batch.size() * 280);
+        sb.append("{\"seq\":").append(seq).append(",\"gap\":").append(gap).append(",\"events\":[");
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) sb.append(',');
+            encoder.accept(sb, batch.get(i));
+        }
+        return sb.append("]}").toString();
+    }
+}
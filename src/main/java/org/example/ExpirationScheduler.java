@@ -0,0 +1,52 @@
+package org.example;
+
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+// Deadline queue for open auctions, ordered by end time.
+// The engine sleeps until the earliest deadline instead of scanning the catalog every second,
+// so a tick only touches the auctions that actually expire.
+public class ExpirationScheduler {
+    static final class Deadline implements Delayed {
+        final ItemManager.Item item;
+        final long endTime;   // item.endTime() when this entry was queued
+        final long fireAt;    // wall-clock ms when the entry becomes due
+
+        Deadline(ItemManager.Item item, long endTime, long fireAt) {
+            this.item = item; this.endTime = endTime; this.fireAt = fireAt;
+        }
+
+        // Anti-sniping moves the end time and queues a new entry, so the old one goes stale
+        boolean isStale() {
+            ItemManager.BidState s = item.state();
+            return item.removed || !s.isOpen || s.endTime != endTime;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(fireAt - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed o) {
+            return Long.compare(fireAt, ((Deadline) o).fireAt);
+        }
+    }
+
+    private static final DelayQueue<Deadline> queue = new DelayQueue<>();
+
+    // Due once now > endTime, matching the old "now > item.endTime" scan condition
+    static void schedule(ItemManager.Item item) {
+        ItemManager.BidState s = item.state();
+        if (s.isOpen) queue.add(new Deadline(item, s.endTime, s.endTime + 1));
+    }
+
+    // Blocks up to timeoutMillis for the next due entry, null on timeout
+    static Deadline awaitDue(long timeoutMillis) throws InterruptedException {
+        return queue.poll(Math.max(0, timeoutMillis), TimeUnit.MILLISECONDS);
+    }
+
+    // Next entry that is already due, never blocks
+    static Deadline pollDue() { return queue.poll(); }
+}
@@ -0,0 +1,142 @@
+package org.example;
+
+// Hand-written text codec for items.txt lines and journal records.
+// Encoding appends into a caller-supplied (usually reused) StringBuilder; decoding walks the line with a
+// cursor instead of split(";"), and money goes through Money.parse instead of Double.parseDouble.
+//
+// Item line: name;startingPrice;category;owner;imagePath;condition;currentBid;topBidder;endTime;isOpen;id;version;maxBid
+// The 10-field (no id), 11-field (no version) and 12-field (no maxBid) layouts written by older versions still load.
+// Text fields are escaped (see appendText), so no name, path or user name can end a field or a record.
+final class ItemCodec {
+    private ItemCodec() {}
+
+    // --- ENCODE ---
+    static StringBuilder encodeItem(ItemManager.Item i, StringBuilder sb) {
+        ItemManager.BidState s = i.state();
+        appendText(sb, i.name).append(';');
+        Money.append(sb, i.startingPriceCents).append(';');
+        appendText(sb, i.category).append(';');
+        appendText(sb, i.owner).append(';');
+        appendText(sb, i.imagePath).append(';');
+        appendText(sb, i.condition).append(';');
+        Money.append(sb, s.currentBidCents).append(';');
+        appendText(sb, s.topBidder).append(';').append(s.endTime).append(';').append(s.isOpen).append(';');
+        sb.append(i.id).append(';').append(s.version).append(';');
+        return Money.append(sb, s.maxBidCents);
+    }
+
+    // <type>;id;currentBid;topBidder;endTime;version;maxBid
+    static StringBuilder encodeState(char type, ItemManager.Item i, ItemManager.BidState s, StringBuilder sb) {
+        sb.append(type).append(';').append(i.id).append(';');
+        Money.append(sb, s.currentBidCents).append(';');
+        appendText(sb, s.topBidder).append(';').append(s.endTime).append(';').append(s.version).append(';');
+        return Money.append(sb, s.maxBidCents);
+    }
+
+    // \ -> \\, ; -> \c, LF -> \n, CR -> \r. Lines written before escaping have no '\' before those letters
+    // in practice, and any other '\' is read back as it is.
+    static StringBuilder appendText(StringBuilder sb, String v) {
+        if (v == null) return sb.append("null");
+        for (int i = 0; i < v.length(); i++) {
+            char c = v.charAt(i);
+            switch (c) {
+                case '\\': sb.append("\\\\"); break;
+                case ';': sb.append("\\c"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                default: sb.append(c);
+            }
+        }
+        return sb;
+    }
+
+    // --- DECODE ---
+    // Cursor over the ';'-separated fields of one line. Reusable: call reset() per line.
+    static final class Fields {
+        private CharSequence line;
+        private int start, end, limit;
+
+        Fields reset(CharSequence line, int from) {
+            this.line = line; this.limit = line.length(); this.end = from - 1;
+            return this;
+        }
+
+        // Fields left, counting the one next() would return
+        int remaining() {
+            if (end >= limit) return 0;
+            int n = 1;
+            for (int i = end + 1; i < limit; i++) if (line.charAt(i) == ';') n++;
+            return n;
+        }
+
+        Fields next() {
+            start = end + 1;
+            if (start > limit) throw new IllegalArgumentException("Missing field in: " + line);
+            int i = start;
+            while (i < limit && line.charAt(i) != ';') i++;
+            end = i;
+            return this;
+        }
+
+        String string() {
+            for (int i = start; i < end; i++) if (line.charAt(i) == '\\') return unescape();
+            return line.subSequence(start, end).toString();
+        }
+
+        private String unescape() {
+            StringBuilder sb = new StringBuilder(end - start);
+            for (int i = start; i < end; i++) {
+                char c = line.charAt(i);
+                char e = c == '\\' && i + 1 < end ? line.charAt(i + 1) : 0;
+                switch (e) {
+                    case '\\': sb.append('\\'); i++; break;
+                    case 'c': sb.append(';'); i++; break;
+                    case 'n': sb.append('\n'); i++; break;
+                    case 'r': sb.append('\r'); i++; break;
+                    default: sb.append(c);
+                }
+            }
+            return sb.toString();
+        }
+
+        long cents() { return Money.parse(line, start, end); }
+        boolean bool() { return end - start == 4 && line.charAt(start) == 't'; }
+
+        long longValue() {
+            if (start == end) throw new NumberFormatException("Empty number in: " + line);
+            boolean negative = line.charAt(start) == '-';
+            long v = 0;
+            for (int i = negative ? start + 1 : start; i < end; i++) {
+                char c = line.charAt(i);
+                if (c < '0' || c > '9') throw new NumberFormatException("Bad number in: " + line);
+                v = v * 10 + (c - '0');
+            }
+            return negative ? -v : v;
+        }
+    }
+
+    // Item line starting at `from`, or null if the field count is not a known layout.
+    // A line without an id gets id -1; the caller assigns one.
+    static ItemManager.Item decodeItem(CharSequence line, int from, Fields f) {
+        f.reset(line, from);
+        int fields = f.remaining();
+        if (fields < 10 || fields > 13) return null;
+        String name = f.next().string();
+        long startingPrice = f.next().cents();
+        String category = f.next().string(), owner = f.next().string();
+        String imagePath = f.next().string(), condition = f.next().string();
+        long currentBid = f.next().cents();
+        String topBidder = f.next().string();
+        long endTime = f.next().longValue();
+        boolean isOpen = f.next().bool();
+        ItemManager.Item item = new ItemManager.Item(name, startingPrice, category, owner, imagePath, condition,
+                currentBid, topBidder, endTime, isOpen);
+        item.id = fields >= 11 ? f.next().longValue() : -1;
+        if (fields >= 12) {
+            long version = f.next().longValue();
+            long maxBid = fields == 13 ? f.next().cents() : currentBid;
+            item.restore(new ItemManager.BidState(currentBid, topBidder, endTime, isOpen, version, maxBid));
+        }
+        return item;
+    }
+}
@@ -0,0 +1,14 @@
+package org.example;
+
+// A single change to the catalog, published by ItemManager right after the change is applied.
+// RELOAD (item null) comes only from RemoteAuction: changes were missed, so what is shown must be fetched again.
+public class ItemEvent {
+    public enum Type { CREATED, BID, CLOSED, DELETED, ARCHIVED, RELOAD }
+
+    public final Type type;
+    public final ItemManager.Item item;
+
+    public ItemEvent(Type type, ItemManager.Item item) {
+        this.type = type; this.item = item;
+    }
+}
@@ -0,0 +1,209 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Append-only change log for the item catalog.
+// items.snapshot is the compacted BASE (binary, see ItemSnapshot), items.journal holds every mutation since.
+// A bid appends one short line, so persistence cost no longer depends on how many listings exist. Records
+// are written by the journal consumer of EventBus, off the bidding threads, with one flush per batch.
+//
+// Record types (all values are absolute, so replaying a record twice is harmless):
+//   C;<full item line>                                            created
+//   B;<id>;<currentBid>;<topBidder>;<endTime>;<version>;<maxBid>  bid accepted (amounts as dollars with 2 decimals)
+//   X;<id>;<currentBid>;<topBidder>;<endTime>;<version>;<maxBid>  closed
+//   D;<id>                                                        deleted
+// Records from older versions have no <maxBid>; it then equals <currentBid>.
+// Concurrent bids may append out of order; the version lets replay keep only the newest state.
+public class ItemJournal {
+    // Same directory as users.db (-Dauction.dataDir, default: working directory)
+    private static final String DATA_DIR = System.getProperty("auction.dataDir", ".");
+    // Text base written by older versions; read once, replaced by the first snapshot
+    static final String BASE_PATH = Paths.get(DATA_DIR, "items.txt").toString();
+    static final String SNAPSHOT_PATH = Paths.get(DATA_DIR, "items.snapshot").toString();
+    private static final String JOURNAL_PATH = Paths.get(DATA_DIR, "items.journal").toString();
+    private static final String ROTATED_PATH = Paths.get(DATA_DIR, "items.journal.1").toString();
+    private static final int MIN_COMPACT_RECORDS = 10_000;
+    // Snapshot at least this often while there are mutations (-Dauction.snapshot.intervalSeconds, 0 = off)
+    private static final long SNAPSHOT_INTERVAL_SECONDS = Long.getLong("auction.snapshot.intervalSeconds", 300);
+
+    private static BufferedWriter out;
+    private static int records;
+    private static boolean compacting;
+    private static final Object compactLock = new Object();
+
+    // 1. ONE background thread rewrites the base, never the bidding threads
+    private static final ScheduledExecutorService compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "item-journal-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    static {
+        if (SNAPSHOT_INTERVAL_SECONDS > 0) {
+            compactor.scheduleWithFixedDelay(ItemJournal::compactIfDirty,
+                    SNAPSHOT_INTERVAL_SECONDS, SNAPSHOT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    // --- LOGGING ("journal" consumer of EventBus) ---
+    // Records of one bus batch accumulate here and go out as ONE append + flush.
+    // Only the consumer thread touches the buffer.
+    private static final int MAX_BATCH_RECORDS = 1024;
+    private static final StringBuilder batch = new StringBuilder(4096);
+    private static int batchRecords;
+
+    static void onEvent(EventBus.Event e, long sequence, boolean endOfBatch) {
+        if (batchRecords > 0) batch.append(System.lineSeparator());
+        switch (e.type) {
+            case CREATED: ItemCodec.encodeItem(e.item, batch.append("C;")); break;
+            case BID: ItemCodec.encodeState('B', e.item, e.state, batch); break;
+            case CLOSED: ItemCodec.encodeState('X', e.item, e.state, batch); break;
+            default: batch.append("D;").append(e.item.id); break;   // DELETED, ARCHIVED
+        }
+        if (++batchRecords >= MAX_BATCH_RECORDS || endOfBatch) {
+            append(batch, batchRecords);
+            batch.setLength(0);
+            batchRecords = 0;
+        }
+    }
+
+    private static synchronized void append(CharSequence lines, int count) {
+        long start = System.nanoTime();
+        try {
+            if (out == null) out = openJournal();
+            out.append(lines);
+            out.newLine();
+            out.flush();
+            records += count;
+        } catch (IOException e) { e.printStackTrace(); }
+        Metrics.JOURNAL_APPEND.record(System.nanoTime() - start);
+
+        // Compact once the log outgrows the catalog, so the rewrite is amortised O(1) per mutation
+        if (!compacting && records >= Math.max(MIN_COMPACT_RECORDS, ItemManager.activeItems.size())) {
+            compacting = true;
+            compactor.submit(ItemJournal::compact);
+        }
+    }
+
+    private static BufferedWriter openJournal() throws IOException {
+        return Files.newBufferedWriter(Paths.get(JOURNAL_PATH), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    // --- COMPACTION ---
+    // 2. Under the lock: rotate the journal and snapshot the catalog (no disk I/O besides a rename).
+    // 3. Outside the lock: write the binary snapshot (ItemSnapshot: temp file, fsync, atomic rename),
+    //    then drop the rotated log and the legacy text base.
+    // States encoded after the rotation may be newer than the rotation point; they are in the new journal
+    // too, and replay keeps the highest version either way.
+    // A crash at any point leaves base + rotated + current journal, which replay() applies in order.
+    static void compact() {
+        synchronized (compactLock) { compactLocked(); }
+    }
+
+    // Periodic snapshot: only when something was journaled since the last one
+    private static void compactIfDirty() {
+        synchronized (ItemJournal.class) {
+            if (compacting || records == 0) return;
+            compacting = true;
+        }
+        compact();
+    }
+
+    private static void compactLocked() {
+        List<ItemManager.Item> snapshot;
+        synchronized (ItemJournal.class) {
+            try {
+                if (out != null) { out.close(); out = null; }
+                if (Files.exists(Paths.get(JOURNAL_PATH)) && !Files.exists(Paths.get(ROTATED_PATH))) {
+                    Files.move(Paths.get(JOURNAL_PATH), Paths.get(ROTATED_PATH), StandardCopyOption.ATOMIC_MOVE);
+                }
+            } catch (IOException e) { e.printStackTrace(); }
+            records = 0;
+            snapshot = new ArrayList<>(ItemManager.activeItems);
+        }
+
+        try {
+            ItemSnapshot.write(snapshot, Paths.get(SNAPSHOT_PATH));
+            // Only once the snapshot is durable: everything these held is in it
+            Files.deleteIfExists(Paths.get(ROTATED_PATH));
+            Files.deleteIfExists(Paths.get(BASE_PATH));
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            synchronized (ItemJournal.class) { compacting = false; }
+        }
+    }
+
+    // --- RECOVERY ---
+    // Replays rotated then current journal on top of the base items already in the map.
+    static void replay(Map<Long, ItemManager.Item> items) {
+        replayFile(ROTATED_PATH, items);
+        int replayed = replayFile(JOURNAL_PATH, items);
+        synchronized (ItemJournal.class) { records = replayed; }
+    }
+
+    // A rotated log left on disk means the last compaction never finished
+    static boolean hasPendingRotation() { return Files.exists(Paths.get(ROTATED_PATH)); }
+
+    // Catalog still in the text base of an older version
+    static boolean hasLegacyBase() {
+        return Files.exists(Paths.get(BASE_PATH)) && !Files.exists(Paths.get(SNAPSHOT_PATH));
+    }
+
+    private static int replayFile(String path, Map<Long, ItemManager.Item> items) {
+        if (!Files.exists(Paths.get(path))) return 0;
+        int count = 0;
+        ItemCodec.Fields f = new ItemCodec.Fields();
+        try (BufferedReader in = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.length() < 2) continue;
+                switch (line.charAt(0)) {
+                    case 'C': {
+                        ItemManager.Item item = ItemCodec.decodeItem(line, 2, f);
+                        if (item != null) {
+                            ItemManager.assignId(item);
+                            items.put(item.id, item);
+                        }
+                        break;
+                    }
+                    case 'B':
+                    case 'X': {
+                        int fields = f.reset(line, 2).remaining();
+                        ItemManager.Item item = items.get(f.next().longValue());
+                        if (item != null) {
+                            long bid = f.next().cents();
+                            String bidder = f.next().string();
+                            long endTime = f.next().longValue();
+                            long version = f.next().longValue();
+                            long maxBid = fields >= 6 ? f.next().cents() : bid;
+                            item.restore(new ItemManager.BidState(bid, bidder, endTime, line.charAt(0) == 'B', version, maxBid));
+                        }
+                        break;
+                    }
+                    case 'D':
+                        items.remove(f.reset(line, 2).next().longValue());
+                        break;
+                    default:
+                        break;
+                }
+                count++;
+            }
+        } catch (IOException | RuntimeException e) {
+            // A torn last line from a crash mid-append is expected; everything before it is kept
+            e.printStackTrace();
+        }
+        return count;
+    }
+}
@@ -1,151 +1,504 @@
 package org.example;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.*;
-import java.util.concurrent.Semaphore;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 public class ItemManager {
-    private static final String FILE_PATH = "items.txt";
+    private static final String FILE_PATH = ItemJournal.BASE_PATH;
 
-    public static final List<String> CATEGORIES = Arrays.asList(
-            "Electronics", "Fashion", "Home & Garden", "Sports",
-            "Collectibles", "Motors", "Toys & Hobbies", "Business & Industrial"
-    );
+    // Copy-on-write: iterated by the engine and the journal compactor while the UI adds/removes listings
+    public static List<Item> activeItems = new CopyOnWriteArrayList<>();
 
-    public static List<Item> activeItems = new ArrayList<>();
+    private static final AtomicLong nextId = new AtomicLong(1);
+
+    // Notified on the thread that made the change; must be quick and must not block
+    private static final List<Consumer<ItemEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    // Immutable snapshot of everything a bid can change. Replaced as a whole with compare-and-set,
+    // so readers always see a consistent bid/bidder/deadline triple without taking any lock.
+    // Amounts are long cents (see Money).
+    public static final class BidState {
+        public final long currentBidCents;
+        public final String topBidder;
+        public final long endTime;
+        public final boolean isOpen;
+        // Bumped on every transition; journal replay uses it to ignore records written out of order
+        public final long version;
+        // The leader's maximum (proxy) bid, which is what their wallet holds. Equals currentBidCents for a plain bid.
+        public final long maxBidCents;
+
+        BidState(long currentBidCents, String topBidder, long endTime, boolean isOpen, long version) {
+            this(currentBidCents, topBidder, endTime, isOpen, version, currentBidCents);
+        }
+
+        BidState(long currentBidCents, String topBidder, long endTime, boolean isOpen, long version, long maxBidCents) {
+            this.currentBidCents = currentBidCents; this.topBidder = topBidder; this.endTime = endTime;
+            this.isOpen = isOpen; this.version = version; this.maxBidCents = Math.max(maxBidCents, currentBidCents);
+        }
+
+        // New leader at `price`, bidding up to `max`
+        BidState withLeader(long price, String bidder, long max, long newEndTime) {
+            return new BidState(price, bidder, newEndTime, true, version + 1, max);
+        }
+
+        // Same leader and maximum, new price (a challenger was outbid by the leader's maximum)
+        BidState withPrice(long price, long newEndTime) {
+            return new BidState(price, topBidder, newEndTime, true, version + 1, maxBidCents);
+        }
+
+        BidState closed() { return new BidState(currentBidCents, topBidder, endTime, false, version + 1, maxBidCents); }
+
+        boolean hasBidder() { return !topBidder.equals("None"); }
+    }
 
     public static class Item {
+        public long id;
         public String name, category, owner, imagePath, condition;
-        public double startingPrice, currentBid;
-        public String topBidder;
-        public long endTime;
-        public boolean isOpen;
+        public long startingPriceCents;
+        // Set once the listing is deleted, so queued deadlines for it are ignored
+        volatile boolean removed;
+
+        // 1. ATOMIC STATE: the single source of truth for the bid. No permit, no lock.
+        private final AtomicReference<BidState> state;
+
+        public Item(String name, long startingPriceCents, String category, String owner, String imagePath, String condition,
+                    long currentBidCents, String topBidder, long endTime, boolean isOpen) {
+            // Shared instances from the string dictionary when the column store is on
+            this.name = ColumnStore.canonical(name); this.startingPriceCents = startingPriceCents;
+            this.category = ColumnStore.canonical(category); this.owner = ColumnStore.canonical(owner);
+            this.imagePath = ColumnStore.canonical(imagePath); this.condition = ColumnStore.canonical(condition);
+            this.state = new AtomicReference<>(new BidState(currentBidCents, topBidder, endTime, isOpen, 0));
+        }
+
+        public BidState state() { return state.get(); }
+        public long currentBidCents() { return state.get().currentBidCents; }
+        // Dollars, for display
+        public double currentBid() { return Money.toDollars(state.get().currentBidCents); }
+        public double startingPrice() { return Money.toDollars(startingPriceCents); }
+        public String topBidder() { return state.get().topBidder; }
+        public long endTime() { return state.get().endTime; }
+        public boolean isOpen() { return state.get().isOpen; }
 
-        // 1. SEMAPHORE: Controls access to this specific item.
-        // limit 1 = Only 1 thread can modify this item at a time.
-        public final transient Semaphore bidPermit = new Semaphore(1);
+        boolean compareAndSet(BidState expected, BidState next) { return state.compareAndSet(expected, next); }
 
-        public Item(String name, double startingPrice, String category, String owner, String imagePath, String condition,
-                    double currentBid, String topBidder, long endTime, boolean isOpen) {
-            this.name = name; this.startingPrice = startingPrice; this.category = category;
-            this.owner = owner; this.imagePath = imagePath; this.condition = condition;
-            this.currentBid = currentBid; this.topBidder = topBidder; this.endTime = endTime; this.isOpen = isOpen;
+        // Recovery only: install a replayed state unless a newer one is already there
+        void restore(BidState s) {
+            if (s.version >= state.get().version) state.set(s);
         }
     }
 
-    static { loadItemsFromDisk(); }
+    static {
+        loadItemsFromDisk();
+        if (ItemJournal.hasPendingRotation() || ItemJournal.hasLegacyBase()) ItemJournal.compact();
+        for (Item item : activeItems) {
+            ExpirationScheduler.schedule(item);
+            AuctionArchive.schedule(item);
+            SearchIndex.add(item);
+            CatalogIndex.reindex(item);
+        }
+    }
 
+    // Base first (binary snapshot, or the text file of an older version), then the journal replayed on top of it
     private static void loadItemsFromDisk() {
-        if (!Files.exists(Paths.get(FILE_PATH))) return;
-        try (Stream<String> lines = Files.lines(Paths.get(FILE_PATH))) {
-            activeItems = lines.map(line -> line.split(";"))
-                    .filter(p -> p.length == 10)
-                    .map(p -> new Item(p[0], Double.parseDouble(p[1]), p[2], p[3], p[4], p[5],
-                            Double.parseDouble(p[6]), p[7], Long.parseLong(p[8]), Boolean.parseBoolean(p[9])))
-                    .collect(Collectors.toList());
-        } catch (IOException e) { e.printStackTrace(); }
+        Map<Long, Item> loaded = new LinkedHashMap<>();
+        Path snapshot = Paths.get(ItemJournal.SNAPSHOT_PATH);
+        boolean fromSnapshot = false;
+        if (Files.exists(snapshot)) {
+            try {
+                for (Item item : ItemSnapshot.read(snapshot)) {
+                    assignId(item);
+                    loaded.put(item.id, item);
+                }
+                fromSnapshot = true;
+            } catch (IOException | RuntimeException e) {
+                // Never half a catalog: set the file aside and recover from whatever else is on disk
+                e.printStackTrace();
+                loaded.clear();
+                ItemSnapshot.quarantine(snapshot);
+            }
+        }
+        if (!fromSnapshot && Files.exists(Paths.get(FILE_PATH))) loadTextBase(loaded);
+        ItemJournal.replay(loaded);
+        // Listing order is id order; the indexes are filed in it too
+        List<Item> sorted = new ArrayList<>(loaded.values());
+        sorted.sort(Comparator.comparingLong(i -> i.id));
+        activeItems = new CopyOnWriteArrayList<>(sorted);
+    }
+
+    private static void loadTextBase(Map<Long, Item> loaded) {
+        try (BufferedReader in = Files.newBufferedReader(Paths.get(FILE_PATH), StandardCharsets.UTF_8)) {
+            ItemCodec.Fields fields = new ItemCodec.Fields();
+            List<Item> unnumbered = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                Item item = ItemCodec.decodeItem(line, 0, fields);
+                if (item == null) continue;
+                if (item.id < 0) { unnumbered.add(item); continue; }
+                assignId(item);
+                loaded.put(item.id, item);
+            }
+            // Numbered only once every known id is seen, so a fresh id never collides with a later line
+            for (Item item : unnumbered) {
+                assignId(item);
+                loaded.put(item.id, item);
+            }
+        } catch (IOException | RuntimeException e) { e.printStackTrace(); }
+    }
+
+    // Legacy lines without an id get a fresh one on load; known ids move the counter past them
+    static void assignId(Item item) {
+        if (item.id < 0) item.id = nextOwnedId();
+        else nextId.accumulateAndGet(item.id + 1, Math::max);
+    }
+
+    // A partition only numbers items with ids that hash to it, so the router finds every item from its id alone
+    private static long nextOwnedId() {
+        long id;
+        do id = nextId.getAndIncrement(); while (!Partitions.ownsItem(id));
+        return id;
     }
 
     public static void createAuction(String name, double startPrice, String category, String owner, String image, String condition, int durationMinutes) {
         long endTime = System.currentTimeMillis() + (durationMinutes * 60 * 1000L);
-        Item newItem = new Item(name, startPrice, category, owner, image, condition, startPrice, "None", endTime, true);
+        long startCents = Money.toCents(startPrice);
+        Item newItem = new Item(name, startCents, category, owner, image, condition, startCents, "None", endTime, true);
+        newItem.id = nextOwnedId();
         activeItems.add(newItem);
-        saveAllItems();
+        SearchIndex.add(newItem);
+        CatalogIndex.reindex(newItem);
+        ExpirationScheduler.schedule(newItem);
+        EventBus.publish(ItemEvent.Type.CREATED, newItem, newItem.state());
     }
 
-    // --- SAFE BIDDING WITH SEMAPHORE ---
+    // --- LOCK-FREE BIDDING ---
+    // Funds are reserved first, then the bid is accepted by a compare-and-set on the item's state.
+    // No lock is held during any database call, so other bidders on the item are never blocked.
     public static String placeBid(Item item, String bidder, double bidAmount) {
-        try {
-            // 2. ACQUIRE: If another user is currently bidding on this item,
-            // this thread will WAIT here patiently until the other finishes.
-            item.bidPermit.acquire();
+        return bid(item, bidder, Money.toCents(bidAmount), false);
+    }
+
+    // --- PROXY BIDDING ---
+    // The bidder names a maximum and the engine bids for them: the price only rises to one increment
+    // (BidIncrements) over the best competing maximum. Competing maximums are resolved in the same single
+    // compare-and-set as a plain bid, so a bidding war costs one hold, one release and one journal record
+    // instead of a round trip per step.
+    public static String placeProxyBid(Item item, String bidder, double maxAmount) {
+        return bid(item, bidder, Money.toCents(maxAmount), true);
+    }
+
+    private static String bid(Item item, String bidder, long amount, boolean proxy) {
+        long start = System.nanoTime();
+        String result = tryPlaceBid(item, bidder, amount, proxy, start);
+        Metrics.BID.record(System.nanoTime() - start);
+        Metrics.BID_OUTCOMES.count(result);
+        return result;
+    }
+
+    private static String tryPlaceBid(Item item, String bidder, long amount, boolean proxy, long start) {
+        // 2. PRE-CHECKS against a snapshot: rejects most bids without touching the wallet
+        BidState seen = item.state();
+        if (!seen.isOpen) return "Auction has ended!";
+        if (bidder.equals(item.owner)) return "You cannot bid on your own item!";
+        String low = tooLow(seen, bidder, amount, proxy);
+        if (low != null) return low;
 
-            // --- CRITICAL SECTION START ---
-            if (!item.isOpen) return "Auction has ended!";
-            if (bidAmount <= item.currentBid) return "Bid too low! Current is $" + item.currentBid;
-            if (bidder.equals(item.owner)) return "You cannot bid on your own item!";
+        // 3. RESERVE: atomic check-and-debit in the wallet. The leader's wallet always holds their maximum,
+        // so a leader raising their own bid only reserves the difference.
+        boolean raising = bidder.equals(seen.topBidder);
+        long reserve = raising ? amount - seen.maxBidCents : amount;
+        boolean held;
+        try {
+            held = WalletManager.holdFunds(bidder, reserve);
+        } catch (WalletManager.WalletUnavailableException e) {
+            return e.getMessage();
+        }
+        long reserved = System.nanoTime();
+        Metrics.BID_RESERVE.record(reserved - start);
+        if (!held) return "Insufficient funds!";
 
-            if (WalletManager.getBalance(bidder) < bidAmount) return "Insufficient funds!";
+        // 4. ACCEPT: retry only while the bid is still valid against the latest state
+        while (true) {
+            BidState current = item.state();
+            String rejected = !current.isOpen ? "Auction has ended!"
+                    : raising != bidder.equals(current.topBidder) || (raising && current.maxBidCents != seen.maxBidCents)
+                        ? "Bid changed while placing it, try again!"
+                        : tooLow(current, bidder, amount, proxy);
+            if (rejected != null) {
+                // Lost the race to a close or a higher bid: give the reservation back
+                WalletManager.releaseFunds(bidder, reserve);
+                return rejected;
+            }
 
-            // Refund logic
-            if (!item.topBidder.equals("None")) {
-                WalletManager.releaseFunds(item.topBidder, item.currentBid);
+            BidState next = resolve(current, bidder, amount, proxy);
+            if (item.compareAndSet(current, next)) {
+                // 5. EFFECTS: only the thread that displaced a bidder refunds it, so each hold is released once
+                boolean won = next.topBidder.equals(bidder);
+                if (!won) WalletManager.releaseFunds(bidder, reserve);
+                else if (!raising && current.hasBidder()) WalletManager.releaseFunds(current.topBidder, current.maxBidCents);
+                // Deleted meanwhile: deleteItem's close comes after this CAS and refunds whoever it left leading
+                if (!item.removed) {
+                    if (next.endTime != current.endTime) ExpirationScheduler.schedule(item);
+                    CatalogIndex.reindex(item);
+                }
+                EventBus.publish(ItemEvent.Type.BID, item, next);
+                Metrics.BID_ACCEPT.record(System.nanoTime() - reserved);
+                return won ? "SUCCESS" : "Outbid by a maximum bid! Current is $" + Money.format(next.currentBidCents);
             }
+            Metrics.BID_OUTCOMES.casRetries.increment();
+        }
+    }
 
-            // Lock Funds & Update
-            if (WalletManager.holdFunds(bidder, bidAmount)) {
-                item.currentBid = bidAmount;
-                item.topBidder = bidder;
+    // The state after `bidder` bids `amount` on `current`, which tooLow() has already accepted
+    private static BidState resolve(BidState current, String bidder, long amount, boolean proxy) {
+        // Anti-Sniping
+        long endTime = current.endTime;
+        if (endTime - System.currentTimeMillis() < 60000) endTime += 60000;
 
-                // Anti-Sniping
-                long timeLeft = item.endTime - System.currentTimeMillis();
-                if (timeLeft < 60000) item.endTime += 60000;
+        if (bidder.equals(current.topBidder)) {
+            // Raising one's own maximum never moves the price; a plain bid sets it
+            return current.withLeader(proxy ? current.currentBidCents : amount, bidder, amount, endTime);
+        }
+        if (current.hasBidder() && current.maxBidCents >= amount) {
+            // The leader's maximum defends: price rises to one increment over the challenger (ties go
+            // to the earlier bid), the challenger is refunded in the same step
+            return current.withPrice(Math.min(current.maxBidCents, BidIncrements.next(amount)), endTime);
+        }
+        // New leader: a plain bid pays what it says, a proxy only one increment over the old maximum
+        long price = !proxy ? amount
+                : current.hasBidder() ? Math.min(amount, BidIncrements.next(current.maxBidCents))
+                : current.currentBidCents;
+        return current.withLeader(price, bidder, amount, endTime);
+    }
 
-                saveAllItems();
-                return "SUCCESS";
-            } else {
-                return "Wallet Transaction Failed!";
+    // Why `amount` cannot be bid against this state, or null if it can.
+    // A proxy maximum must reach the next increment; a plain bid only has to beat the current price.
+    private static String tooLow(BidState s, String bidder, long amount, boolean proxy) {
+        if (bidder.equals(s.topBidder)) {
+            return amount > s.maxBidCents ? null : "Bid too low! Your maximum is $" + Money.format(s.maxBidCents);
+        }
+        long min = proxy && s.hasBidder() ? BidIncrements.next(s.currentBidCents) : s.currentBidCents + 1;
+        return amount >= min ? null : "Bid too low! Current is $" + Money.format(s.currentBidCents);
+    }
+
+    // --- BATCH BIDDING ---
+    public static final class BidCommand {
+        public final Item item;
+        public final String bidder;
+        public final double amount;
+        public final boolean proxy;   // amount is a maximum, as in placeProxyBid
+
+        public BidCommand(Item item, String bidder, double amount) { this(item, bidder, amount, false); }
+
+        public BidCommand(Item item, String bidder, double amount, boolean proxy) {
+            this.item = item; this.bidder = bidder; this.amount = amount; this.proxy = proxy;
+        }
+    }
+
+    // Applies a burst of bids. Commands are grouped by item and each group is played in submission order
+    // against one snapshot of the item's state, then installed with ONE compare-and-set. Only the group's net
+    // outcome touches the wallet (a hold for the final leader, a release for the one it displaced) and the
+    // journal (one record per item, all appended in one write).
+    // Results come back in command order, with the messages placeBid would have returned for the same
+    // commands run one after another.
+    public static List<String> placeBids(List<BidCommand> commands) {
+        long start = System.nanoTime();
+        String[] results = new String[commands.size()];
+        Map<Item, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < commands.size(); i++) {
+            groups.computeIfAbsent(commands.get(i).item, k -> new ArrayList<>()).add(i);
+        }
+
+        for (Map.Entry<Item, List<Integer>> g : groups.entrySet()) {
+            try {
+                BidState next = resolveGroup(g.getKey(), g.getValue(), commands, results);
+                if (next != null) EventBus.publish(ItemEvent.Type.BID, g.getKey(), next);
+            } catch (WalletManager.WalletUnavailableException e) {
+                // A bidder's home partition is unreachable: nothing of this group was applied
+                for (int i : g.getValue()) results[i] = e.getMessage();
+            }
+        }
+
+        Metrics.BID_BATCH.record(System.nanoTime() - start);
+        for (String r : results) Metrics.BID_OUTCOMES.count(r);
+        return Arrays.asList(results);
+    }
+
+    // Installs the group's final state and settles the wallets. Returns null if no command changed the item.
+    private static BidState resolveGroup(Item item, List<Integer> group, List<BidCommand> commands, String[] results) {
+        // Commands whose bidder turned out unable to fund the final hold
+        Set<Integer> unfunded = new HashSet<>();
+        while (true) {
+            BidState before = item.state(), state = before;
+            // What each bidder can commit: free balance, plus the maximum already held if they lead
+            Map<String, Long> funds = new HashMap<>();
+            for (int i : group) {
+                BidCommand c = commands.get(i);
+                long amount = Money.toCents(c.amount);
+                String r = !state.isOpen ? "Auction has ended!"
+                        : c.bidder.equals(item.owner) ? "You cannot bid on your own item!"
+                        : tooLow(state, c.bidder, amount, c.proxy);
+                if (r == null) {
+                    long available = funds.computeIfAbsent(c.bidder, u ->
+                            WalletManager.getBalanceCents(u) + (u.equals(before.topBidder) ? before.maxBidCents : 0));
+                    if (unfunded.contains(i) || available < amount) r = "Insufficient funds!";
+                }
+                if (r == null) {
+                    state = resolve(state, c.bidder, amount, c.proxy);
+                    r = state.topBidder.equals(c.bidder) ? "SUCCESS"
+                            : "Outbid by a maximum bid! Current is $" + Money.format(state.currentBidCents);
+                }
+                results[i] = r;
             }
-            // --- CRITICAL SECTION END ---
+            if (state == before) return null;
 
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            return "System Interrupted";
-        } finally {
-            // 3. RELEASE: Always release the permit, even if an error occurs.
-            item.bidPermit.release();
+            // Net wallet effect of the whole group
+            String leader = state.topBidder;
+            boolean sameLeader = leader.equals(before.topBidder);
+            long reserve = sameLeader ? state.maxBidCents - before.maxBidCents : state.maxBidCents;
+            if (reserve > 0 && !WalletManager.holdFunds(leader, reserve)) {
+                // The balance moved since it was read: drop the command that set the maximum and replay
+                for (int i : group) {
+                    BidCommand c = commands.get(i);
+                    if (c.bidder.equals(leader) && Money.toCents(c.amount) >= state.maxBidCents) unfunded.add(i);
+                }
+                continue;
+            }
+            if (item.compareAndSet(before, state)) {
+                if (!sameLeader && before.hasBidder()) WalletManager.releaseFunds(before.topBidder, before.maxBidCents);
+                if (!item.removed) {   // see tryPlaceBid
+                    if (state.endTime != before.endTime) ExpirationScheduler.schedule(item);
+                    CatalogIndex.reindex(item);
+                }
+                return state;
+            }
+            // A single bid or a close got in first: give the hold back and replay against the new state
+            if (reserve > 0) WalletManager.releaseFunds(leader, reserve);
+            Metrics.BID_OUTCOMES.casRetries.increment();
         }
     }
 
     // --- BACKGROUND THREAD CHECK ---
+    // Closes every auction whose deadline has passed. Cost depends on how many expire, not on catalog size.
     public static boolean checkExpirations() {
+        long start = System.nanoTime();
         boolean changed = false;
-        long now = System.currentTimeMillis();
-
-        for (Item item : activeItems) {
-            if (item.isOpen && now > item.endTime) {
-                // 4. TRY ACQUIRE: If a user is bidding RIGHT NOW, skip this check for 1 second.
-                // We don't want the background thread to block the UI.
-                if (item.bidPermit.tryAcquire()) {
-                    try {
-                        if (item.isOpen) {
-                            item.isOpen = false;
-                            changed = true;
-                            if (!item.topBidder.equals("None")) {
-                                WalletManager.transferLockedFundsToSeller(item.topBidder, item.owner, item.currentBid);
-                            }
-                        }
-                    } finally {
-                        item.bidPermit.release();
-                    }
-                }
-            }
+        ExpirationScheduler.Deadline d;
+        while ((d = ExpirationScheduler.pollDue()) != null) {
+            changed |= expire(d);
         }
-        if (changed) saveAllItems();
+        Metrics.EXPIRATION_TICK.record(System.nanoTime() - start);
         return changed;
     }
 
-    // 5. SYNCHRONIZED IO: Prevents multiple threads from writing to the file at once
-    // This is "Coarse-Grained Synchronization"
-    public static synchronized void saveAllItems() {
-        List<String> lines = activeItems.stream()
-                .map(i -> String.format("%s;%.2f;%s;%s;%s;%s;%.2f;%s;%d;%b",
-                        i.name, i.startingPrice, i.category, i.owner, i.imagePath, i.condition,
-                        i.currentBid, i.topBidder, i.endTime, i.isOpen))
-                .collect(Collectors.toList());
+    // Waits up to timeoutMillis for the earliest deadline, then closes everything that is due.
+    public static boolean awaitExpirations(long timeoutMillis) throws InterruptedException {
+        ExpirationScheduler.Deadline d = ExpirationScheduler.awaitDue(timeoutMillis);
+        if (d == null) return false;
+        boolean changed = expire(d);
+        return checkExpirations() || changed;
+    }
 
-        try {
-            Files.write(Paths.get(FILE_PATH), lines);
-        } catch (IOException e) { e.printStackTrace(); }
+    private static boolean expire(ExpirationScheduler.Deadline d) {
+        Item item = d.item;
+        while (true) {
+            if (d.isStale()) return false;
+            BidState current = item.state();
+
+            // 6. CLOSE with the same compare-and-set: a racing bid either lands before (and moves the
+            // deadline, making this entry stale) or fails and refunds itself
+            BidState closed = current.closed();
+            if (item.compareAndSet(current, closed)) {
+                CatalogIndex.reindex(item);
+                // Payment is the settlement consumer's job (settle), not the expiration thread's
+                EventBus.publish(ItemEvent.Type.CLOSED, item, closed);
+                AuctionArchive.schedule(item);
+                return true;
+            }
+        }
+    }
+
+    // 5. FULL REWRITE: mutations are journaled as they happen, this only forces a compaction
+    // of the journal into a fresh base file (the compactor thread normally does it on its own).
+    public static void saveAllItems() {
+        long start = System.nanoTime();
+        ItemJournal.compact();
+        Metrics.SAVE_ALL_ITEMS.record(System.nanoTime() - start);
     }
 
     // Utilities
     //pushing
-    public static void deleteItem(Item item) { activeItems.removeIf(i -> i == item); saveAllItems(); }
+    public static void deleteItem(Item item) {
+        item.removed = true;
+        // Close it with the same compare-and-set as expiry: a racing bid either landed first (its leader is
+        // refunded here, since the auction will never settle) or fails on the closed state and refunds itself
+        while (true) {
+            BidState current = item.state();
+            if (!current.isOpen) break;
+            if (item.compareAndSet(current, current.closed())) {
+                if (current.hasBidder()) WalletManager.releaseFunds(current.topBidder, current.maxBidCents);
+                break;
+            }
+        }
+        if (activeItems.remove(item)) {
+            SearchIndex.remove(item);
+            CatalogIndex.remove(item);
+            EventBus.publish(ItemEvent.Type.DELETED, item, item.state());
+        }
+    }
+
+    // Called by AuctionArchive once the batch is safely in archived_items.
+    // The journal records it like a delete: it is gone from the live catalog for good.
+    static void evictArchived(List<Item> archived) {
+        if (archived.isEmpty()) return;
+        for (Item item : archived) item.removed = true;
+        // One copy of the array for the whole batch instead of one per item
+        activeItems.removeAll(new HashSet<>(archived));
+        for (Item item : archived) {
+            SearchIndex.remove(item);
+            CatalogIndex.remove(item);
+            EventBus.publish(ItemEvent.Type.ARCHIVED, item, item.state());
+        }
+    }
+
+    // --- CHANGE EVENTS ---
+    // Every change goes through EventBus once; these are two of its consumers.
+    public static void addListener(Consumer<ItemEvent> listener) { listeners.add(listener); }
+    public static void removeListener(Consumer<ItemEvent> listener) { listeners.remove(listener); }
+
+    // "notify" consumer: listeners keep the event, so it is copied out of the ring slot
+    static void notifyListeners(EventBus.Event e, long sequence, boolean endOfBatch) {
+        if (listeners.isEmpty()) return;
+        ItemEvent event = new ItemEvent(e.type, e.item);
+        for (Consumer<ItemEvent> l : listeners) l.accept(event);
+    }
+
+    // "settlement" consumer: the winner pays the seller from the funds held since their bid.
+    // They held their maximum; whatever the price did not reach goes back.
+    static void settle(EventBus.Event e, long sequence, boolean endOfBatch) {
+        if (e.type != ItemEvent.Type.CLOSED || !e.state.hasBidder()) return;
+        WalletManager.transferLockedFundsToSeller(e.state.topBidder, e.item.owner, e.state.currentBidCents);
+        long unused = e.state.maxBidCents - e.state.currentBidCents;
+        if (unused > 0) WalletManager.releaseFunds(e.state.topBidder, unused);
+    }
+
     public static List<Item> getAllItems() { return new ArrayList<>(activeItems); }
-    public static List<Item> searchItems(String q) { return activeItems.stream().filter(i -> i.name.toLowerCase().contains(q.toLowerCase())).collect(Collectors.toList()); }
-    public static List<Item> getItemsByCategory(String c) { return activeItems.stream().filter(i -> i.category.equalsIgnoreCase(c)).collect(Collectors.toList()); }
+    public static List<Item> searchItems(String q) { return SearchIndex.search(q); }
+    public static List<Item> getItemsByCategory(String c) { return CatalogIndex.byCategory(c); }
+
+    // Combined category / open / bid-range filter with sorting and paging, served from the secondary indexes
+    public static List<Item> query(ItemQuery q) { return CatalogIndex.query(q); }
+    public static int countItems(String category) { return CatalogIndex.count(category); }
+
+    // By id, through the listing-order index; null once deleted or archived
+    public static Item getItem(long id) {
+        List<Item> hit = CatalogIndex.query(new ItemQuery().after(id - 1).page(0, 1));
+        return hit.isEmpty() || hit.get(0).id != id ? null : hit.get(0);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Filter + sort + page description for ItemManager.query().
+// Every filter is optional; unset filters match everything.
+public class ItemQuery {
+    // Kept here rather than in ItemManager so a remote client can list them without loading the catalog
+    public static final List<String> CATEGORIES = Arrays.asList(
+            "Electronics", "Fashion", "Home & Garden", "Sports",
+            "Collectibles", "Motors", "Toys & Hobbies", "Business & Industrial"
+    );
+
+    public enum Sort { LISTING_ORDER, ENDING_SOONEST, PRICE_LOW_TO_HIGH, PRICE_HIGH_TO_LOW }
+
+    String category;
+    boolean openOnly;
+    long minBid = Long.MIN_VALUE, maxBid = Long.MAX_VALUE;   // cents
+    Sort sort = Sort.LISTING_ORDER;
+    int offset = 0, limit = 50;
+    long afterId = Long.MIN_VALUE;
+
+    public ItemQuery category(String category) { this.category = category; return this; }
+    public ItemQuery openOnly() { this.openOnly = true; return this; }
+    // Inclusive range on the current bid, in dollars
+    public ItemQuery bidBetween(double min, double max) {
+        this.minBid = min == Double.NEGATIVE_INFINITY ? Long.MIN_VALUE : Money.toCents(min);
+        this.maxBid = max == Double.POSITIVE_INFINITY ? Long.MAX_VALUE : Money.toCents(max);
+        return this;
+    }
+    public ItemQuery sortBy(Sort sort) { this.sort = sort; return this; }
+    public ItemQuery page(int offset, int limit) { this.offset = offset; this.limit = limit; return this; }
+    // Keyset paging for LISTING_ORDER: starts right after the item with this id, whatever its position.
+    // Cost of the next page does not grow with how far the caller has already scrolled.
+    public ItemQuery after(long id) { this.afterId = id; return this; }
+
+    boolean hasBidRange() { return minBid != Long.MIN_VALUE || maxBid != Long.MAX_VALUE; }
+}
@@ -0,0 +1,156 @@
+package org.example;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+// Binary base file of the catalog (items.snapshot), written by journal compaction and memory-mapped at startup.
+//
+//   header   magic "AUCS" | format | string count | item count                       (ints)
+//   strings  length (int) + UTF-8 bytes, each distinct name/category/owner/path/condition/bidder once
+//   items    fixed RECORD_BYTES records:
+//              id | version | startingPrice | currentBid | maxBid | endTime        (longs, money in cents)
+//              name | category | owner | imagePath | condition | topBidder          (string table indexes)
+//              isOpen                                                               (byte)
+//   trailer  CRC32C of everything above (int) | magic "AUCE"
+//
+// Written to a temp file, forced to disk and only then renamed over the previous snapshot, so a crash
+// mid-write never touches the snapshot in use. A snapshot whose checksum does not match is rejected as a
+// whole: part of a catalog is never loaded.
+final class ItemSnapshot {
+    private ItemSnapshot() {}
+
+    private static final int MAGIC = 0x41554353;       // "AUCS"
+    private static final int END_MAGIC = 0x41554345;   // "AUCE"
+    private static final int FORMAT = 1;
+    private static final int HEADER_BYTES = 16, TRAILER_BYTES = 8;
+    private static final int RECORD_BYTES = 6 * 8 + 6 * 4 + 1;
+
+    // --- WRITE ---
+    static void write(List<ItemManager.Item> items, Path target) throws IOException {
+        // States are read once, so the string table and the records agree even while bids land
+        List<ItemManager.BidState> states = new ArrayList<>(items.size());
+        Map<String, Integer> codes = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        for (ItemManager.Item i : items) {
+            ItemManager.BidState s = i.state();
+            states.add(s);
+            for (String v : new String[] { i.name, i.category, i.owner, i.imagePath, i.condition, s.topBidder }) {
+                codes.computeIfAbsent(v, k -> { strings.add(k); return strings.size() - 1; });
+            }
+        }
+
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            CRC32C crc = new CRC32C();
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(ch), 1 << 16), crc));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.writeInt(strings.size());
+            out.writeInt(items.size());
+            for (String v : strings) {
+                byte[] bytes = v == null ? new byte[0] : v.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(v == null ? -1 : bytes.length);
+                out.write(bytes);
+            }
+            for (int k = 0; k < items.size(); k++) {
+                ItemManager.Item i = items.get(k);
+                ItemManager.BidState s = states.get(k);
+                out.writeLong(i.id);
+                out.writeLong(s.version);
+                out.writeLong(i.startingPriceCents);
+                out.writeLong(s.currentBidCents);
+                out.writeLong(s.maxBidCents);
+                out.writeLong(s.endTime);
+                out.writeInt(codes.get(i.name));
+                out.writeInt(codes.get(i.category));
+                out.writeInt(codes.get(i.owner));
+                out.writeInt(codes.get(i.imagePath));
+                out.writeInt(codes.get(i.condition));
+                out.writeInt(codes.get(s.topBidder));
+                out.writeByte(s.isOpen ? 1 : 0);
+            }
+            out.flush();
+            int checksum = (int) crc.getValue();
+            out.writeInt(checksum);
+            out.writeInt(END_MAGIC);
+            out.flush();
+            ch.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // --- READ ---
+    // Items in file order (ids ascending), each with its saved state and version
+    static List<ItemManager.Item> read(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < HEADER_BYTES + TRAILER_BYTES) throw new IOException("Snapshot truncated: " + path);
+            if (size > Integer.MAX_VALUE) throw new IOException("Snapshot too large to map: " + path);
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            // 1. VERIFY the whole file before trusting any of it
+            int body = (int) size - TRAILER_BYTES;
+            if (buf.getInt(body + 4) != END_MAGIC) throw new IOException("Snapshot truncated: " + path);
+            CRC32C crc = new CRC32C();
+            crc.update(buf.duplicate().position(0).limit(body));
+            if ((int) crc.getValue() != buf.getInt(body)) throw new IOException("Snapshot checksum mismatch: " + path);
+            if (buf.getInt(0) != MAGIC || buf.getInt(4) != FORMAT) throw new IOException("Unknown snapshot format: " + path);
+
+            // 2. STRING TABLE
+            int stringCount = buf.getInt(8), itemCount = buf.getInt(12);
+            buf.position(HEADER_BYTES);
+            String[] strings = new String[stringCount];
+            byte[] scratch = new byte[256];
+            for (int k = 0; k < stringCount; k++) {
+                int len = buf.getInt();
+                if (len < 0) continue;   // null
+                if (len > scratch.length) scratch = new byte[Math.max(len, scratch.length * 2)];
+                buf.get(scratch, 0, len);
+                strings[k] = new String(scratch, 0, len, StandardCharsets.UTF_8);
+            }
+            if (buf.remaining() - TRAILER_BYTES != (long) itemCount * RECORD_BYTES) {
+                throw new IOException("Snapshot item section has the wrong size: " + path);
+            }
+
+            // 3. RECORDS
+            List<ItemManager.Item> items = new ArrayList<>(itemCount);
+            for (int k = 0; k < itemCount; k++) {
+                long id = buf.getLong(), version = buf.getLong(), startingPrice = buf.getLong();
+                long currentBid = buf.getLong(), maxBid = buf.getLong(), endTime = buf.getLong();
+                String name = strings[buf.getInt()], category = strings[buf.getInt()], owner = strings[buf.getInt()];
+                String imagePath = strings[buf.getInt()], condition = strings[buf.getInt()], topBidder = strings[buf.getInt()];
+                boolean isOpen = buf.get() != 0;
+                ItemManager.Item item = new ItemManager.Item(name, startingPrice, category, owner, imagePath, condition,
+                        currentBid, topBidder, endTime, isOpen);
+                item.id = id;
+                item.restore(new ItemManager.BidState(currentBid, topBidder, endTime, isOpen, version, maxBid));
+                items.add(item);
+            }
+            return items;
+        }
+    }
+
+    // A rejected snapshot is kept aside for inspection and never read again
+    static void quarantine(Path path) {
+        try {
+            Files.move(path, path.resolveSibling(path.getFileName() + ".corrupt"), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) { e.printStackTrace(); }
+    }
+}
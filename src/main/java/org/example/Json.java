@@ -0,0 +1,186 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Just enough JSON for the server protocol (AuctionServer / RemoteAuction): no dependency needed.
+// Parsed objects are Maps, arrays are Lists, strings are Strings and booleans Booleans.
+// Numbers stay as their source text, so amounts go through Money.parse and never through a double.
+public final class Json {
+    private Json() {}
+
+    // --- WRITE ---
+    public static StringBuilder quote(StringBuilder sb, String v) {
+        if (v == null) return sb.append("null");
+        sb.append('"');
+        for (int i = 0; i < v.length(); i++) {
+            char c = v.charAt(i);
+            if (c == '"' || c == '\\') sb.append('\\').append(c);
+            else if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+            else sb.append(c);
+        }
+        return sb.append('"');
+    }
+
+    public static String quote(String v) { return quote(new StringBuilder(v == null ? 4 : v.length() + 2), v).toString(); }
+
+    // --- READ ---
+    public static Object parse(String text) {
+        Parser p = new Parser(text);
+        Object v = p.value();
+        p.skipSpace();
+        if (p.pos != text.length()) throw p.error();
+        return v;
+    }
+
+    // --- RELAY ---
+    // Source text of each element of an array, for passing values on untouched (PartitionRouter)
+    public static List<String> elements(String array) {
+        Parser p = new Parser(array);
+        List<String> out = new ArrayList<>();
+        p.skipSpace();
+        p.expect('[');
+        p.skipSpace();
+        if (p.peek() == ']') return out;
+        while (true) {
+            p.skipSpace();
+            int start = p.pos;
+            p.value();
+            out.add(array.substring(start, p.pos));
+            p.skipSpace();
+            if (p.peek() == ',') { p.pos++; continue; }
+            p.expect(']');
+            return out;
+        }
+    }
+
+    // Source text of one member of an object, or null if it has none by that name
+    public static String member(String object, String name) {
+        Parser p = new Parser(object);
+        p.skipSpace();
+        p.expect('{');
+        p.skipSpace();
+        if (p.peek() == '}') return null;
+        while (true) {
+            p.skipSpace();
+            String key = p.string();
+            p.skipSpace();
+            p.expect(':');
+            p.skipSpace();
+            int start = p.pos;
+            p.value();
+            if (key.equals(name)) return object.substring(start, p.pos);
+            p.skipSpace();
+            if (p.peek() == ',') { p.pos++; continue; }
+            p.expect('}');
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> object(Object v) { return (Map<String, Object>) v; }
+
+    @SuppressWarnings("unchecked")
+    public static List<Object> array(Object v) { return (List<Object>) v; }
+
+    private static final class Parser {
+        final String s;
+        int pos;
+
+        Parser(String s) { this.s = s; }
+
+        Object value() {
+            skipSpace();
+            if (pos >= s.length()) throw error();
+            char c = s.charAt(pos);
+            switch (c) {
+                case '{': return object();
+                case '[': return array();
+                case '"': return string();
+                case 't': return literal("true", Boolean.TRUE);
+                case 'f': return literal("false", Boolean.FALSE);
+                case 'n': return literal("null", null);
+                default: return number();
+            }
+        }
+
+        Map<String, Object> object() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            pos++;
+            skipSpace();
+            if (peek() == '}') { pos++; return m; }
+            while (true) {
+                skipSpace();
+                String key = string();
+                skipSpace();
+                expect(':');
+                m.put(key, value());
+                skipSpace();
+                if (peek() == ',') { pos++; continue; }
+                expect('}');
+                return m;
+            }
+        }
+
+        List<Object> array() {
+            List<Object> l = new ArrayList<>();
+            pos++;
+            skipSpace();
+            if (peek() == ']') { pos++; return l; }
+            while (true) {
+                l.add(value());
+                skipSpace();
+                if (peek() == ',') { pos++; continue; }
+                expect(']');
+                return l;
+            }
+        }
+
+        String string() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                if (pos >= s.length()) throw error();
+                char c = s.charAt(pos++);
+                if (c == '"') return sb.toString();
+                if (c != '\\') { sb.append(c); continue; }
+                char e = s.charAt(pos++);
+                switch (e) {
+                    case 'n': sb.append('\n'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u': sb.append((char) Integer.parseInt(s.substring(pos, pos + 4), 16)); pos += 4; break;
+                    default: sb.append(e);
+                }
+            }
+        }
+
+        String number() {
+            int start = pos;
+            while (pos < s.length() && "+-0123456789.eE".indexOf(s.charAt(pos)) >= 0) pos++;
+            if (start == pos) throw error();
+            return s.substring(start, pos);
+        }
+
+        Object literal(String word, Object v) {
+            if (!s.startsWith(word, pos)) throw error();
+            pos += word.length();
+            return v;
+        }
+
+        void expect(char c) {
+            if (peek() != c) throw error();
+            pos++;
+        }
+
+        char peek() { return pos < s.length() ? s.charAt(pos) : 0; }
+
+        void skipSpace() { while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) pos++; }
+
+        IllegalArgumentException error() { return new IllegalArgumentException("Bad JSON at " + pos); }
+    }
+}
@@ -0,0 +1,72 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Lock-free, allocation-free latency histogram in nanoseconds.
+// Buckets are log-linear: 8 sub-buckets per power of two, so any reported value is within 12.5% of the real one.
+public class LatencyHistogram implements LatencyHistogramMBean {
+    private static final int SUB_BITS = 3;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_COUNT;
+
+    private final String name;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    LatencyHistogram(String name) { this.name = name; }
+
+    // --- HOT PATH: a few atomic adds, never allocates ---
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        buckets.incrementAndGet(bucketOf(nanos));
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        long max;
+        while (nanos > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, nanos)) { }
+    }
+
+    private static int bucketOf(long v) {
+        if (v < SUB_COUNT) return (int) v;
+        int msb = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) (v >>> (msb - SUB_BITS)) & (SUB_COUNT - 1);
+        return (msb - SUB_BITS + 1) * SUB_COUNT + sub;
+    }
+
+    // Upper edge of a bucket, used when reporting percentiles
+    private static long bucketLimit(int index) {
+        if (index < SUB_COUNT) return index;
+        int msb = index / SUB_COUNT + SUB_BITS - 1;
+        long low = (long) (SUB_COUNT + index % SUB_COUNT) << (msb - SUB_BITS);
+        return low + (1L << (msb - SUB_BITS)) - 1;
+    }
+
+    public long percentileNanos(double p) {
+        long total = count.get();
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(total * p / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) return Math.min(bucketLimit(i), maxNanos.get());
+        }
+        return maxNanos.get();
+    }
+
+    // --- JMX / REPORTING ---
+    public String getName() { return name; }
+    public long getCount() { return count.get(); }
+    public double getMeanMicros() { long c = count.get(); return c == 0 ? 0 : totalNanos.get() / 1000.0 / c; }
+    public double getP50Micros() { return percentileNanos(50) / 1000.0; }
+    public double getP99Micros() { return percentileNanos(99) / 1000.0; }
+    public double getP999Micros() { return percentileNanos(99.9) / 1000.0; }
+    public double getMaxMicros() { return maxNanos.get() / 1000.0; }
+
+    @Override
+    public String toString() {
+        return String.format("%-22s count=%-9d mean=%.1fus p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+                name, getCount(), getMeanMicros(), getP50Micros(), getP99Micros(), getP999Micros(), getMaxMicros());
+    }
+}
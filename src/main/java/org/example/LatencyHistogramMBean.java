@@ -0,0 +1,12 @@
+package org.example;
+
+// JMX view of one LatencyHistogram (org.example:type=Latency,name=...)
+public interface LatencyHistogramMBean {
+    String getName();
+    long getCount();
+    double getMeanMicros();
+    double getP50Micros();
+    double getP99Micros();
+    double getP999Micros();
+    double getMaxMicros();
+}
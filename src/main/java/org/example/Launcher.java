@@ -1,7 +1,13 @@
 package org.example;
 
+import java.util.Arrays;
+
 public class Launcher {
-    public static void main(String[] args) {
-        AuctionApp.main(args);
+    // "--server" starts the headless AuctionServer instead of the desktop client,
+    // "--cluster N" a router in front of N partition processes (ClusterLauncher)
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--server")) AuctionServer.main(args);
+        else if (args.length > 0 && args[0].equals("--cluster")) ClusterLauncher.main(Arrays.copyOfRange(args, 1, args.length));
+        else AuctionApp.main(args);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,214 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Read side of the transactions ledger (LedgerWriter is the write side).
+//   statement()   one user's history in (timestamp, id) order, keyset paged
+//   export*()     the same rows streamed to CSV or NDJSON, one row in memory at a time
+//   checkpoint    running balance per user, so reconciliation only folds rows newer than the checkpoint
+//
+// Timestamps are SQLite CURRENT_TIMESTAMP text (UTC, "YYYY-MM-DD HH:MM:SS").
+// Amounts are REAL dollars in the transactions table; every row is read through Money.toCents and all
+// arithmetic here is on long cents, so sums and comparisons are exact.
+public class Ledger {
+    public enum Format { CSV, NDJSON }
+
+    public static final class Entry {
+        public final long id;
+        public final String username, type, timestamp;
+        public final long amountCents;
+
+        Entry(long id, String username, String type, long amountCents, String timestamp) {
+            this.id = id; this.username = username; this.type = type; this.amountCents = amountCents; this.timestamp = timestamp;
+        }
+    }
+
+    // What the ledger says a wallet should hold, next to what it holds (cents)
+    public static final class Reconciliation {
+        public final String username;
+        public final long ledgerBalanceCents, ledgerLockedCents, walletBalanceCents, walletLockedCents;
+
+        Reconciliation(String username, long ledgerBalanceCents, long ledgerLockedCents,
+                       long walletBalanceCents, long walletLockedCents) {
+            this.username = username;
+            this.ledgerBalanceCents = ledgerBalanceCents; this.ledgerLockedCents = ledgerLockedCents;
+            this.walletBalanceCents = walletBalanceCents; this.walletLockedCents = walletLockedCents;
+        }
+
+        public boolean matches() {
+            return ledgerBalanceCents == walletBalanceCents && ledgerLockedCents == walletLockedCents;
+        }
+    }
+
+    private static final String COLUMNS = "SELECT id, username, type, amount, timestamp FROM transactions ";
+
+    // --- STATEMENTS ---
+    // Pass null for the first page, then the last entry of the previous page.
+    // The (username, timestamp) index serves both the filter and the order; the cursor is a range seek.
+    public static List<Entry> statement(String username, Entry after, int limit) throws SQLException {
+        String sql = COLUMNS + "WHERE username = ? AND (timestamp, id) > (?, ?) ORDER BY timestamp, id LIMIT ?";
+        return Database.read(s -> {
+            PreparedStatement pstmt = s.prepare(sql);
+            pstmt.setString(1, username);
+            pstmt.setString(2, after == null ? "" : after.timestamp);
+            pstmt.setLong(3, after == null ? 0 : after.id);
+            pstmt.setInt(4, limit);
+            List<Entry> page = new ArrayList<>(limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) page.add(entry(rs));
+            }
+            return page;
+        });
+    }
+
+    // --- STREAMING EXPORT ---
+    // Rows go straight from the cursor to the writer. A pooled reader is held for the whole export.
+    public static void exportUser(String username, Format format, Writer out) throws IOException, SQLException {
+        export(COLUMNS + "WHERE username = ? ORDER BY timestamp, id", format, out, username);
+    }
+
+    // Every user's rows with from <= timestamp < to
+    public static void exportWindow(String from, String to, Format format, Writer out) throws IOException, SQLException {
+        export(COLUMNS + "WHERE timestamp >= ? AND timestamp < ? ORDER BY timestamp, id", format, out, from, to);
+    }
+
+    private static void export(String sql, Format format, Writer out, String... params) throws IOException, SQLException {
+        try {
+            Database.read(s -> {
+                PreparedStatement pstmt = s.prepare(sql);
+                for (int i = 0; i < params.length; i++) pstmt.setString(i + 1, params[i]);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (format == Format.CSV) out.write("id,username,type,amount,timestamp\n");
+                    while (rs.next()) write(entry(rs), format, out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return null;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+    }
+
+    private static void write(Entry e, Format format, Writer out) throws IOException {
+        if (format == Format.CSV) {
+            out.write(e.id + "," + csv(e.username) + "," + csv(e.type) + "," + Money.format(e.amountCents) + "," + csv(e.timestamp) + "\n");
+        } else {
+            out.write("{\"id\":" + e.id + ",\"username\":" + Json.quote(e.username) + ",\"type\":" + Json.quote(e.type)
+                    + ",\"amount\":" + Money.format(e.amountCents) + ",\"timestamp\":" + Json.quote(e.timestamp) + "}\n");
+        }
+    }
+
+    private static String csv(String v) {
+        if (v.indexOf(',') < 0 && v.indexOf('"') < 0 && v.indexOf('\n') < 0) return v;
+        return "\"" + v.replace("\"", "\"\"") + "\"";
+    }
+
+    private static Entry entry(ResultSet rs) throws SQLException {
+        return new Entry(rs.getLong(1), rs.getString(2), rs.getString(3), Money.toCents(rs.getDouble(4)), rs.getString(5));
+    }
+
+    // --- CHECKPOINTS ---
+    // How one ledger row moves the wallet columns. HOLD_BID (negative) and REFUND_OUTBID (positive) both
+    // shift money between balance and locked; PAYMENT_SENT (negative) only spends locked money.
+    static long balanceEffect(String type, long amount) {
+        return "PAYMENT_SENT".equals(type) ? 0 : amount;
+    }
+
+    static long lockedEffect(String type, long amount) {
+        switch (type) {
+            case "HOLD_BID":
+            case "REFUND_OUTBID": return -amount;
+            case "PAYMENT_SENT": return amount;
+            default: return 0;
+        }
+    }
+
+    // Folds every row written since the last checkpoint into the per-user running balances, in one transaction.
+    // Rows up to the highest last_tx_id are already folded for EVERY user (this is the only writer of
+    // checkpoints), so the new rows are a rowid range seek, not a scan. Each row is converted to cents on its
+    // own: a SQL SUM over the REAL column would add up the binary rounding errors.
+    // Runs under the single writer, so no ledger batch can commit lower ids behind it.
+    public static void checkpointAll() throws SQLException {
+        LedgerWriter.flush();
+        String fold = "SELECT username, type, amount, id, timestamp FROM transactions " +
+                "WHERE id > (SELECT COALESCE(MAX(last_tx_id), 0) FROM ledger_checkpoints)";
+        String upsert = "INSERT INTO ledger_checkpoints(username, last_tx_id, last_timestamp, balance_cents, locked_cents) " +
+                "VALUES(?, ?, ?, ?, ?) ON CONFLICT(username) DO UPDATE SET " +
+                "last_tx_id = excluded.last_tx_id, last_timestamp = excluded.last_timestamp, " +
+                "balance_cents = balance_cents + excluded.balance_cents, locked_cents = locked_cents + excluded.locked_cents";
+        Database.write(s -> {
+            // username -> {balance delta, locked delta, last id}, plus the last timestamp
+            Map<String, long[]> deltas = new HashMap<>();
+            Map<String, String> lastTimestamp = new HashMap<>();
+            PreparedStatement pstmt = s.prepare(fold);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    String user = rs.getString(1), type = rs.getString(2);
+                    long amount = Money.toCents(rs.getDouble(3));
+                    long[] d = deltas.computeIfAbsent(user, u -> new long[3]);
+                    d[0] += balanceEffect(type, amount);
+                    d[1] += lockedEffect(type, amount);
+                    d[2] = Math.max(d[2], rs.getLong(4));
+                    lastTimestamp.merge(user, rs.getString(5), (a, b) -> a.compareTo(b) >= 0 ? a : b);
+                }
+            }
+            PreparedStatement up = s.prepare(upsert);
+            for (Map.Entry<String, long[]> e : deltas.entrySet()) {
+                up.setString(1, e.getKey());
+                up.setLong(2, e.getValue()[2]);
+                up.setString(3, lastTimestamp.get(e.getKey()));
+                up.setLong(4, e.getValue()[0]);
+                up.setLong(5, e.getValue()[1]);
+                up.addBatch();
+            }
+            if (!deltas.isEmpty()) up.executeBatch();
+            return null;
+        });
+    }
+
+    // Checkpoint plus the rows after it, compared with the live wallet.
+    // Exact only while the user has no operation in flight (the wallet moves before its ledger row commits).
+    public static Reconciliation reconcile(String username) throws SQLException {
+        LedgerWriter.flush();
+        String cp = "SELECT last_tx_id, last_timestamp, balance_cents, locked_cents FROM ledger_checkpoints WHERE username = ?";
+        String tail = "SELECT type, amount FROM transactions WHERE username = ? AND timestamp >= ? AND id > ?";
+        long[] ledger = Database.read(s -> {
+            long lastId = 0;
+            String lastTs = "";
+            long balance = 0, locked = 0;
+            PreparedStatement pstmt = s.prepare(cp);
+            pstmt.setString(1, username);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    lastId = rs.getLong(1); lastTs = rs.getString(2);
+                    balance = rs.getLong(3); locked = rs.getLong(4);
+                }
+            }
+            pstmt = s.prepare(tail);
+            pstmt.setString(1, username);
+            pstmt.setString(2, lastTs);
+            pstmt.setLong(3, lastId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    long amount = Money.toCents(rs.getDouble(2));
+                    balance += balanceEffect(rs.getString(1), amount);
+                    locked += lockedEffect(rs.getString(1), amount);
+                }
+            }
+            return new long[] { balance, locked };
+        });
+        return new Reconciliation(username, ledger[0], ledger[1],
+                WalletManager.getBalanceCents(username), WalletManager.getLockedBalanceCents(username));
+    }
+}
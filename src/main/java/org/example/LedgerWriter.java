@@ -0,0 +1,124 @@
+package org.example;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Group-commit writer for the transactions ledger.
+// Callers enqueue entries and return immediately; ONE writer thread gathers whatever arrives within
+// the flush interval and inserts the whole batch in a single transaction (one commit, one WAL sync).
+//
+// Settings (system properties):
+//   auction.ledger.flushMillis  how long the writer waits to grow a batch (default 10)
+//   auction.ledger.durability   ASYNC = never wait, SYNC = logTransaction waits for its commit (default ASYNC)
+public class LedgerWriter {
+    public enum Durability { ASYNC, SYNC }
+
+    static final long FLUSH_INTERVAL_MS = Long.getLong("auction.ledger.flushMillis", 10);
+    static final Durability DURABILITY = Durability.valueOf(System.getProperty("auction.ledger.durability", "ASYNC"));
+    private static final int MAX_BATCH = 1000;
+
+    private static final class Entry {
+        final String username, type;   // username == null marks a flush barrier
+        final long amount;   // cents
+        final CompletableFuture<Void> committed = new CompletableFuture<>();
+
+        Entry(String username, String type, long amount) {
+            this.username = username; this.type = type; this.amount = amount;
+        }
+    }
+
+    private static final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private static volatile boolean running = true;
+    private static final Thread writer = new Thread(LedgerWriter::runWriter, "ledger-writer");
+
+    static {
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(LedgerWriter::shutdown));
+    }
+
+    // Completes once the entry is committed. Never wait on it inside a Database.write():
+    // the writer thread needs the same write lock.
+    static CompletableFuture<Void> append(String username, String type, long amount) {
+        Entry e = new Entry(username, type, amount);
+        if (!running) {
+            e.committed.completeExceptionally(new IllegalStateException("Ledger writer is stopped"));
+            return e.committed;
+        }
+        queue.add(e);
+        return e.committed;
+    }
+
+    // Blocks until everything enqueued before this call is committed
+    public static void flush() {
+        if (!running || Thread.currentThread() == writer) return;
+        Entry barrier = new Entry(null, null, 0);
+        queue.add(barrier);
+        barrier.committed.join();
+    }
+
+    public static void shutdown() {
+        if (!running) return;
+        flush();
+        running = false;
+        writer.interrupt();
+    }
+
+    private static void runWriter() {
+        List<Entry> batch = new ArrayList<>(MAX_BATCH);
+        while (running) {
+            try {
+                // 1. Sleep until there is something to write
+                batch.add(queue.take());
+
+                // 2. Linger for the flush interval so concurrent callers share the commit
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MS);
+                while (batch.size() < MAX_BATCH) {
+                    Entry next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                queue.drainTo(batch, MAX_BATCH - batch.size());
+
+                // 3. One transaction for the whole batch
+                commit(batch);
+            } catch (InterruptedException e) {
+                if (!batch.isEmpty()) commit(batch);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private static void commit(List<Entry> batch) {
+        long start = System.nanoTime();
+        String sql = "INSERT INTO transactions(username, type, amount) VALUES(?, ?, ?)";
+        try {
+            Database.write(s -> {
+                PreparedStatement pstmt = s.prepare(sql);
+                int rows = 0;
+                for (Entry e : batch) {
+                    if (e.username == null) continue;
+                    pstmt.setString(1, e.username);
+                    pstmt.setString(2, e.type);
+                    pstmt.setDouble(3, Money.toDollars(e.amount));
+                    pstmt.addBatch();
+                    rows++;
+                }
+                if (rows > 0) pstmt.executeBatch();
+                return null;
+            });
+            Metrics.LEDGER_COMMIT.record(System.nanoTime() - start);
+            for (Entry e : batch) e.committed.complete(null);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            for (Entry entry : batch) entry.committed.completeExceptionally(e);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.example;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+// Hot-path instrumentation: latency histograms and bid outcome counters.
+// Everything is exposed through JMX (domain org.example) and printed to stdout every
+// auction.metrics.dumpSeconds seconds (default 60, 0 turns the dump off).
+public class Metrics {
+    static final long DUMP_SECONDS = Long.getLong("auction.metrics.dumpSeconds", 60);
+
+    // --- LATENCIES ---
+    public static final LatencyHistogram BID = new LatencyHistogram("placeBid");
+    // Time to reserve the bidder's funds (this replaced waiting for the item permit)
+    public static final LatencyHistogram BID_RESERVE = new LatencyHistogram("placeBid.reserve");
+    // Time from reserved funds to accepted bid: compare-and-set, refund, index and journal
+    public static final LatencyHistogram BID_ACCEPT = new LatencyHistogram("placeBid.accept");
+    // One placeBids call, whole batch
+    public static final LatencyHistogram BID_BATCH = new LatencyHistogram("placeBids");
+    public static final LatencyHistogram WALLET_HOLD = new LatencyHistogram("wallet.holdFunds");
+    public static final LatencyHistogram WALLET_RELEASE = new LatencyHistogram("wallet.releaseFunds");
+    public static final LatencyHistogram WALLET_TRANSFER = new LatencyHistogram("wallet.transfer");
+    public static final LatencyHistogram WALLET_DEPOSIT = new LatencyHistogram("wallet.deposit");
+    public static final LatencyHistogram WALLET_FLUSH = new LatencyHistogram("wallet.flush");
+    public static final LatencyHistogram LEDGER_COMMIT = new LatencyHistogram("ledger.commit");
+    public static final LatencyHistogram JOURNAL_APPEND = new LatencyHistogram("journal.append");
+    public static final LatencyHistogram SAVE_ALL_ITEMS = new LatencyHistogram("saveAllItems");
+    public static final LatencyHistogram EXPIRATION_TICK = new LatencyHistogram("checkExpirations");
+    // From EventBus.publish to the metrics consumer: how far the consumers run behind the engine
+    public static final LatencyHistogram EVENT_LAG = new LatencyHistogram("events.lag");
+
+    private static final LatencyHistogram[] ALL = {
+            BID, BID_RESERVE, BID_ACCEPT, BID_BATCH, WALLET_HOLD, WALLET_RELEASE, WALLET_TRANSFER, WALLET_DEPOSIT,
+            WALLET_FLUSH, LEDGER_COMMIT, JOURNAL_APPEND, SAVE_ALL_ITEMS, EXPIRATION_TICK, EVENT_LAG
+    };
+
+    // "metrics" consumer of EventBus
+    static void onEvent(EventBus.Event e, long sequence, boolean endOfBatch) {
+        EVENT_LAG.record(System.nanoTime() - e.publishedAt);
+    }
+
+    // --- BID OUTCOMES ---
+    public static final BidOutcomes BID_OUTCOMES = new BidOutcomes();
+
+    public static class BidOutcomes implements BidOutcomesMBean {
+        final LongAdder success = new LongAdder(), tooLow = new LongAdder(), insufficientFunds = new LongAdder(),
+                ownItem = new LongAdder(), ended = new LongAdder(), outbidByMaximum = new LongAdder(), other = new LongAdder(),
+                casRetries = new LongAdder();
+
+        // Classifies the message placeBid returns; string prefix checks only, nothing is allocated
+        void count(String result) {
+            if (result.equals("SUCCESS")) success.increment();
+            else if (result.startsWith("Bid too low")) tooLow.increment();
+            else if (result.startsWith("Insufficient funds")) insufficientFunds.increment();
+            else if (result.startsWith("You cannot bid")) ownItem.increment();
+            else if (result.startsWith("Auction has ended")) ended.increment();
+            else if (result.startsWith("Outbid by a maximum")) outbidByMaximum.increment();
+            else other.increment();
+        }
+
+        public long getSuccess() { return success.sum(); }
+        public long getBidTooLow() { return tooLow.sum(); }
+        public long getInsufficientFunds() { return insufficientFunds.sum(); }
+        public long getOwnItem() { return ownItem.sum(); }
+        public long getAuctionEnded() { return ended.sum(); }
+        public long getOutbidByMaximum() { return outbidByMaximum.sum(); }
+        public long getOther() { return other.sum(); }
+        public long getCasRetries() { return casRetries.sum(); }
+
+        @Override
+        public String toString() {
+            return String.format("bids: success=%d tooLow=%d insufficientFunds=%d ownItem=%d ended=%d outbidByMaximum=%d other=%d casRetries=%d",
+                    getSuccess(), getBidTooLow(), getInsufficientFunds(), getOwnItem(), getAuctionEnded(), getOutbidByMaximum(),
+                    getOther(), getCasRetries());
+        }
+    }
+
+    static {
+        registerMBeans();
+        if (DUMP_SECONDS > 0) {
+            Thread dumper = new Thread(() -> {
+                while (true) {
+                    try {
+                        Thread.sleep(DUMP_SECONDS * 1000);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    System.out.print(dump());
+                }
+            }, "metrics-dump");
+            dumper.setDaemon(true);
+            dumper.start();
+        }
+    }
+
+    private static void registerMBeans() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            for (LatencyHistogram h : ALL) {
+                ObjectName name = new ObjectName("org.example:type=Latency,name=" + h.getName());
+                if (!server.isRegistered(name)) server.registerMBean(new StandardMBean(h, LatencyHistogramMBean.class), name);
+            }
+            ObjectName outcomes = new ObjectName("org.example:type=BidOutcomes");
+            if (!server.isRegistered(outcomes)) server.registerMBean(new StandardMBean(BID_OUTCOMES, BidOutcomesMBean.class), outcomes);
+        } catch (Exception e) { e.printStackTrace(); }
+    }
+
+    // Plain-text report of every histogram and counter
+    public static String dump() {
+        StringBuilder sb = new StringBuilder("--- METRICS ---\n");
+        for (LatencyHistogram h : ALL) sb.append(h).append('\n');
+        sb.append(BID_OUTCOMES).append('\n');
+        return sb.toString();
+    }
+}
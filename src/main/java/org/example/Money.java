@@ -0,0 +1,64 @@
+package org.example;
+
+// Money is carried as long cents everywhere inside the app, so sums and comparisons are exact.
+// Doubles only appear at the edges: what the UI types in, and the REAL columns of users.db.
+public final class Money {
+    private Money() {}
+
+    // --- BOUNDARY CONVERSIONS ---
+    public static long toCents(double dollars) { return Math.round(dollars * 100); }
+    public static double toDollars(long cents) { return cents / 100.0; }
+
+    // --- TEXT ---
+    // "1234.05" / "-0.50", appended without a Formatter
+    public static StringBuilder append(StringBuilder sb, long cents) {
+        if (cents < 0) {
+            sb.append('-');
+            if (cents == Long.MIN_VALUE) return sb.append("92233720368547758.08");
+            cents = -cents;
+        }
+        long frac = cents % 100;
+        sb.append(cents / 100).append('.');
+        if (frac < 10) sb.append('0');
+        return sb.append(frac);
+    }
+
+    public static String format(long cents) { return append(new StringBuilder(16), cents).toString(); }
+
+    // Parses "12", "12.5", "12.50" or "-3.10". A comma is accepted as the decimal point too, since older
+    // items.txt files were written with the platform locale. Digits past the cents are rounded half-up.
+    public static long parse(CharSequence s, int from, int to) {
+        if (from >= to) throw new NumberFormatException("Empty amount");
+        boolean negative = s.charAt(from) == '-';
+        int i = negative || s.charAt(from) == '+' ? from + 1 : from;
+        if (i >= to) throw new NumberFormatException("Bad amount: " + s.subSequence(from, to));
+
+        long whole = 0, frac = 0;
+        int fracDigits = 0;
+        boolean roundUp = false, inFraction = false;
+        for (; i < to; i++) {
+            char c = s.charAt(i);
+            if (c == '.' || c == ',') {
+                if (inFraction) throw new NumberFormatException("Bad amount: " + s.subSequence(from, to));
+                inFraction = true;
+            } else if (c >= '0' && c <= '9') {
+                if (!inFraction) {
+                    whole = Math.addExact(Math.multiplyExact(whole, 10), c - '0');
+                } else if (fracDigits < 2) {
+                    frac = frac * 10 + (c - '0');
+                    fracDigits++;
+                } else if (fracDigits++ == 2) {
+                    roundUp = c >= '5';
+                }
+            } else {
+                throw new NumberFormatException("Bad amount: " + s.subSequence(from, to));
+            }
+        }
+        if (fracDigits == 1) frac *= 10;
+        else if (fracDigits == 0) frac = 0;
+        long cents = Math.addExact(Math.multiplyExact(whole, 100), frac + (roundUp ? 1 : 0));
+        return negative ? -cents : cents;
+    }
+
+    public static long parse(String s) { return parse(s, 0, s.length()); }
+}
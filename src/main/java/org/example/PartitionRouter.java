@@ -0,0 +1,265 @@
+package org.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// Front door of a partitioned engine (see Partitions, ClusterLauncher). Clients talk to it exactly as to one
+// AuctionServer, and each call goes to the partition that owns what it touches:
+//   register, login                  the username's home partition
+//   deposit, balance, ledger, sell   the caller's home (named by the session token); new items are numbered there
+//   history                          sold: the caller's home, where their items were listed; won: every partition
+//   bid, delete                      the item's partition (from its id)
+//   bids                             split by item partition, sent in parallel, results put back in order
+//   items, count, search             every partition; pages merged in id order, counts added up
+//   events                           one feed: every partition is long-polled and its events renumbered here
+// The router holds no auction state, only the window of recent events. Replies are passed through as they are.
+public class PartitionRouter {
+    private static final long EVENT_WAIT_MS = 25_000;
+
+    private static final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+    private static final EventFeed<String> feed = new EventFeed<>(StringBuilder::append);
+
+    public static void main(String[] args) throws IOException {
+        if (!Partitions.ENABLED) throw new IllegalStateException("auction.partitions is not set");
+        for (int i = 0; i < Partitions.URLS.size(); i++) {
+            int partition = i;
+            Thread poller = new Thread(() -> pollEvents(partition), "router-events-" + i);
+            poller.setDaemon(true);
+            poller.start();
+        }
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(AuctionServer.HOST, AuctionServer.PORT), 0);
+        AuctionServer.route(server, "POST", "/register", (p, ex) -> relay(ex, p, Partitions.ofUser(p.require("username"))));
+        AuctionServer.route(server, "POST", "/login", (p, ex) -> relay(ex, p, Partitions.ofUser(p.require("username"))));
+        AuctionServer.route(server, "GET", "/items", PartitionRouter::items);
+        AuctionServer.route(server, "GET", "/count", PartitionRouter::count);
+        AuctionServer.route(server, "GET", "/search", PartitionRouter::search);
+        AuctionServer.route(server, "GET", "/events",
+                (p, ex) -> feed.poll(p.longValue("after", -1), p.longValue("wait", 0)));
+        AuctionServer.route(server, "POST", "/bid", (p, ex) -> relay(ex, p, itemPartition(p.require("item"))));
+        AuctionServer.route(server, "POST", "/bids", PartitionRouter::bids);
+        AuctionServer.route(server, "POST", "/sell", (p, ex) -> relay(ex, p, home(p)));
+        AuctionServer.route(server, "POST", "/delete", (p, ex) -> relay(ex, p, itemPartition(p.require("item"))));
+        AuctionServer.route(server, "POST", "/deposit", (p, ex) -> relay(ex, p, home(p)));
+        AuctionServer.route(server, "GET", "/balance", (p, ex) -> relay(ex, p, home(p)));
+        AuctionServer.route(server, "GET", "/ledger", (p, ex) -> relay(ex, p, home(p)));
+        AuctionServer.route(server, "GET", "/history", PartitionRouter::history);
+        server.setExecutor(AuctionCommands.newExecutor("router-http-"));
+        server.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1), "router-shutdown"));
+        System.out.println("✅ Partition Router listening on http://" + AuctionServer.HOST + ":" + AuctionServer.PORT
+                + " for " + Partitions.URLS.size() + " partitions");
+    }
+
+    // --- OWNERS ---
+    // Tokens are signed with the cluster key, so the router checks them itself
+    private static int home(AuctionServer.Params p) {
+        String user = UserAuth.verifySession(p.require("token"));
+        if (user == null) throw new AuctionServer.HttpError(401, "Session expired, sign in again");
+        return Partitions.ofUser(user);
+    }
+
+    private static int itemPartition(String id) { return Partitions.ofItem(Long.parseLong(id)); }
+
+    // --- ONE PARTITION ---
+    // The partition's reply, status and body, streamed back as it comes
+    private static String relay(HttpExchange ex, AuctionServer.Params p, int partition) throws IOException {
+        HttpResponse<InputStream> r;
+        try {
+            r = http.send(request(ex.getRequestMethod(), partition, ex.getRequestURI().getPath(), form(p.names, p.values)),
+                    HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AuctionServer.HttpError(503, "Partition unavailable");
+        } catch (IOException e) {
+            throw new AuctionServer.HttpError(503, "Partition unavailable");
+        }
+        ex.getResponseHeaders().set("Content-Type",
+                r.headers().firstValue("Content-Type").orElse("application/json; charset=utf-8"));
+        ex.sendResponseHeaders(r.statusCode(), 0);
+        try (InputStream in = r.body()) {
+            in.transferTo(ex.getResponseBody());
+        } catch (IOException e) {
+            // The partition cut its reply (e.g. a failed ledger export): cut ours too
+            throw new AuctionServer.StreamAborted(e);
+        }
+        return null;
+    }
+
+    // --- EVERY PARTITION ---
+    private static List<String> fetchAll(String path, AuctionServer.Params p) {
+        String form = form(p.names, p.values);
+        List<CompletableFuture<String>> replies = new ArrayList<>();
+        for (int i = 0; i < Partitions.URLS.size(); i++) replies.add(fetch(request("GET", i, path, form)));
+        List<String> out = new ArrayList<>(replies.size());
+        try {
+            for (CompletableFuture<String> r : replies) out.add(r.join());
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof AuctionServer.HttpError ? (AuctionServer.HttpError) e.getCause()
+                    : new AuctionServer.HttpError(503, "Partition unavailable");
+        }
+        return out;
+    }
+
+    // Every partition pages by id from the same cursor, so the first `limit` of the merge is the page
+    private static String items(AuctionServer.Params p, HttpExchange ex) {
+        int limit = (int) p.longValue("limit", 50);
+        List<String> page = new ArrayList<>(byId(fetchAll("/items", p)).values());
+        return "[" + String.join(",", page.subList(0, Math.min(limit, page.size()))) + "]";
+    }
+
+    private static String search(AuctionServer.Params p, HttpExchange ex) {
+        return "[" + String.join(",", byId(fetchAll("/search", p)).values()) + "]";
+    }
+
+    // Ids are unique across partitions: each numbers only the ids it owns
+    private static Map<Long, String> byId(List<String> arrays) {
+        Map<Long, String> items = new TreeMap<>();
+        for (String array : arrays) {
+            for (String item : Json.elements(array)) items.put(Long.parseLong(Json.member(item, "id")), item);
+        }
+        return items;
+    }
+
+    private static String count(AuctionServer.Params p, HttpExchange ex) {
+        long total = 0;
+        for (String r : fetchAll("/count", p)) total += Long.parseLong(Json.member(r, "count"));
+        return "{\"count\":" + total + "}";
+    }
+
+    // A won item is archived by the partition that listed it, so every partition is asked for its newest page
+    // before the cursor and the merge keeps the first `limit`
+    private static String history(AuctionServer.Params p, HttpExchange ex) throws IOException {
+        int home = home(p);
+        if (!"won".equals(p.get("role"))) return relay(ex, p, home);
+        int limit = (int) p.longValue("limit", 50);
+        List<String> page = new ArrayList<>(new TreeMap<>(byId(fetchAll("/history", p))).descendingMap().values());
+        return "[" + String.join(",", page.subList(0, Math.min(limit, page.size()))) + "]";
+    }
+
+    // Each partition gets one /bids with its own bids, so it still resolves them in one placeBids call
+    private static String bids(AuctionServer.Params p, HttpExchange ex) {
+        home(p);   // a bad token is refused once, not once per partition
+        List<String> ids = p.all("item"), amounts = p.all("amount"), proxies = p.all("proxy");
+        if (ids.size() != amounts.size()) throw new AuctionServer.HttpError(400, "One amount per item");
+        Map<Integer, List<Integer>> byPartition = new TreeMap<>();
+        for (int i = 0; i < ids.size(); i++) byPartition.computeIfAbsent(itemPartition(ids.get(i)), k -> new ArrayList<>()).add(i);
+
+        Map<Integer, CompletableFuture<String>> sent = new TreeMap<>();
+        for (Map.Entry<Integer, List<Integer>> e : byPartition.entrySet()) {
+            List<String> names = new ArrayList<>(), values = new ArrayList<>();
+            names.add("token"); values.add(p.get("token"));
+            for (int i : e.getValue()) {
+                names.add("item"); values.add(ids.get(i));
+                names.add("amount"); values.add(amounts.get(i));
+                names.add("proxy"); values.add(i < proxies.size() ? proxies.get(i) : "false");
+            }
+            sent.put(e.getKey(), fetch(request("POST", e.getKey(), "/bids", form(names, values))));
+        }
+
+        String[] results = new String[ids.size()];
+        for (Map.Entry<Integer, CompletableFuture<String>> e : sent.entrySet()) {
+            List<Integer> positions = byPartition.get(e.getKey());
+            try {
+                List<Object> placed = Json.array(Json.object(Json.parse(e.getValue().join())).get("results"));
+                for (int k = 0; k < positions.size(); k++) results[positions.get(k)] = (String) placed.get(k);
+            } catch (CompletionException failed) {
+                // That partition's bids were not placed; the others' were
+                String message = failed.getCause() instanceof AuctionServer.HttpError
+                        ? failed.getCause().getMessage() : "Partition unavailable, try again!";
+                for (int i : positions) results[i] = message;
+            }
+        }
+        StringBuilder sb = new StringBuilder("{\"results\":[");
+        for (int i = 0; i < results.length; i++) {
+            if (i > 0) sb.append(',');
+            Json.quote(sb, results[i]);
+        }
+        return sb.append("]}").toString();
+    }
+
+    // --- EVENT FEED ---
+    // One long-poll loop per partition; its events join the router's feed in arrival order.
+    // Whatever a partition published while it could not be read is gone, so the feed gets a gap marker and
+    // clients reload instead of showing those rows as they were.
+    private static void pollEvents(int partition) {
+        long seq = -1;   // first call only learns where the partition's feed is
+        boolean lost = false;
+        while (true) {
+            try {
+                String reply = fetch(request("GET", partition, "/events",
+                        form(List.of("after", "wait"), List.of(String.valueOf(seq), String.valueOf(EVENT_WAIT_MS))))).join();
+                if (seq >= 0) {
+                    for (String e : Json.elements(Json.member(reply, "events"))) feed.publish(e);
+                }
+                // Back after an outage, or fell out of the partition's own window
+                if (lost || "true".equals(Json.member(reply, "gap"))) feed.markGap();
+                lost = false;
+                seq = Long.parseLong(Json.member(reply, "seq"));
+            } catch (CompletionException | IllegalArgumentException e) {
+                // Partition restarting: start again from its current position
+                lost = true;
+                seq = -1;
+                try { Thread.sleep(1000); } catch (InterruptedException ie) { return; }
+            }
+        }
+    }
+
+    // --- TRANSPORT ---
+    private static String form(List<String> names, List<String> values) {
+        StringBuilder form = new StringBuilder();
+        for (int i = 0; i < names.size(); i++) {
+            if (form.length() > 0) form.append('&');
+            form.append(URLEncoder.encode(names.get(i), StandardCharsets.UTF_8)).append('=')
+                    .append(URLEncoder.encode(values.get(i), StandardCharsets.UTF_8));
+        }
+        return form.toString();
+    }
+
+    private static HttpRequest request(String method, int partition, String path, String form) {
+        boolean get = method.equals("GET");
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(Partitions.url(partition) + path
+                        + (get && !form.isEmpty() ? "?" + form : "")))
+                .timeout(Duration.ofMillis(EVENT_WAIT_MS + 10_000));
+        if (get) return request.GET().build();
+        return request.header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form)).build();
+    }
+
+    // The body of a 200 reply; any other status fails with the partition's own message and status
+    private static CompletableFuture<String> fetch(HttpRequest request) {
+        return http.sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenApply(r -> {
+            if (r.statusCode() == 200) return r.body();
+            String message = "HTTP " + r.statusCode();
+            try {
+                Object error = Json.object(Json.parse(r.body())).get("error");
+                if (error != null) message = (String) error;
+            } catch (RuntimeException notJson) {
+                // keep the status line
+            }
+            throw new AuctionServer.HttpError(r.statusCode(), message);
+        });
+    }
+}
@@ -0,0 +1,239 @@
+package org.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Wallet calls between partitions. A bid is placed by the partition that owns the item, but the bidder's
+// money lives in their home partition (Partitions.ofUser), so WalletManager hands those calls to this class:
+//
+//   hold     balance -> locked, if the balance covers it   answered: held or not
+//   release  locked -> balance (outbid, unused maximum)
+//   commit   locked -> paid out (the winner's side of a sale)
+//   credit   -> balance (the seller's side of a sale)
+//   cancel   undo a hold whose answer never arrived
+//
+// Every call carries an operation id and the home applies each id at most once, so any call can be repeated.
+// A hold is answered synchronously (the bid waits for it). If no answer comes the bid fails and a cancel for the
+// same id is queued: whether the hold was applied or still arrives later, it ends up released or refused.
+// The other calls only move money that is already decided, so they go through an outbox that retries until the
+// home acknowledges them, and bidding never waits on them. The outbox is a table in this partition's users.db
+// (partition_outbox): a call is stored before it is first sent, deleted once acknowledged, and everything still
+// stored is sent again by recover() when the partition restarts.
+//
+// Known gaps: a crash loses only what had not reached the outbox yet, i.e. a release in the instant after its
+// bid's compare-and-set, or the payment for a close the settlement consumer had not handled (as in a single
+// engine). The home remembers the last RECENT_OPS ids in memory only, so a
+// call repeated after the HOME restarted is applied again.
+final class PartitionWallets {
+    private PartitionWallets() {}
+
+    private static final int HOLD_ATTEMPTS = 3;
+    private static final long RETRY_MS = 500;
+    private static final int RECENT_OPS = 100_000;
+
+    private static final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+    // Unique across restarts of this partition: partition, start time, counter
+    private static final String OP_PREFIX = Partitions.SELF + "-" + Long.toString(System.currentTimeMillis(), 36) + "-";
+    private static final AtomicLong opCounter = new AtomicLong();
+
+    private static final class Call {
+        final String kind, user, op;
+        final long cents;
+
+        Call(String kind, String user, long cents, String op) {
+            this.kind = kind; this.user = user; this.cents = cents; this.op = op;
+        }
+    }
+
+    private static final BlockingQueue<Call> outbox = new LinkedBlockingQueue<>();
+
+    static {
+        Thread sender = new Thread(PartitionWallets::drainOutbox, "partition-wallet-outbox");
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    // --- CALLER SIDE ---
+    static boolean hold(String user, long cents) {
+        String op = OP_PREFIX + opCounter.incrementAndGet();
+        for (int attempt = 0; attempt < HOLD_ATTEMPTS; attempt++) {
+            try {
+                return (Boolean) send(new Call("hold", user, cents, op)).get("held");
+            } catch (IOException e) {
+                // Same id again: a hold that was applied is answered, not applied twice
+            }
+        }
+        enqueue(new Call("cancel", user, cents, op));
+        throw new WalletManager.WalletUnavailableException();
+    }
+
+    static void release(String user, long cents) { post("release", user, cents); }
+    static void commit(String user, long cents) { post("commit", user, cents); }
+    static void credit(String user, long cents) { post("credit", user, cents); }
+
+    private static void post(String kind, String user, long cents) {
+        enqueue(new Call(kind, user, cents, OP_PREFIX + opCounter.incrementAndGet()));
+    }
+
+    // --- DURABLE OUTBOX ---
+    // At partition startup, before any bid: queues every call a previous run stored but never saw acknowledged
+    static void recover() {
+        try {
+            List<Call> pending = Database.write(s -> {
+                try (Statement stmt = s.createStatement()) {
+                    stmt.execute("CREATE TABLE IF NOT EXISTS partition_outbox (" +
+                            "op TEXT PRIMARY KEY, " +
+                            "kind TEXT NOT NULL, " +
+                            "username TEXT NOT NULL, " +
+                            "amount INTEGER NOT NULL)");   // cents
+                }
+                List<Call> calls = new ArrayList<>();
+                PreparedStatement pstmt = s.prepare("SELECT kind, username, amount, op FROM partition_outbox ORDER BY rowid");
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) calls.add(new Call(rs.getString(1), rs.getString(2), rs.getLong(3), rs.getString(4)));
+                }
+                return calls;
+            });
+            outbox.addAll(pending);
+            if (!pending.isEmpty()) System.out.println("Resending " + pending.size() + " unacknowledged wallet calls");
+        } catch (SQLException e) { e.printStackTrace(); }
+    }
+
+    private static void enqueue(Call c) {
+        try {
+            Database.write(s -> {
+                PreparedStatement pstmt = s.prepare("INSERT OR IGNORE INTO partition_outbox(op, kind, username, amount) VALUES(?, ?, ?, ?)");
+                pstmt.setString(1, c.op);
+                pstmt.setString(2, c.kind);
+                pstmt.setString(3, c.user);
+                pstmt.setLong(4, c.cents);
+                return pstmt.executeUpdate();
+            });
+        } catch (SQLException e) {
+            // Still sent from memory; only a crash before the acknowledgement would lose it
+            e.printStackTrace();
+        }
+        outbox.add(c);
+    }
+
+    private static void acknowledged(Call c) {
+        try {
+            Database.write(s -> {
+                PreparedStatement pstmt = s.prepare("DELETE FROM partition_outbox WHERE op = ?");
+                pstmt.setString(1, c.op);
+                return pstmt.executeUpdate();
+            });
+        } catch (SQLException e) { e.printStackTrace(); }
+    }
+
+    // {balance, locked} in cents
+    static long[] balance(String user) {
+        try {
+            Map<String, Object> r = send(new Call("balance", user, 0, null));
+            return new long[] { Money.parse((String) r.get("balance")), Money.parse((String) r.get("locked")) };
+        } catch (IOException e) {
+            throw new WalletManager.WalletUnavailableException();
+        }
+    }
+
+    private static void drainOutbox() {
+        while (true) {
+            Call c;
+            try {
+                c = outbox.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                send(c);
+                acknowledged(c);
+            } catch (IOException e) {
+                // Home down or restarting: keep the call and try again shortly (the calls commute)
+                outbox.add(c);
+                try { Thread.sleep(RETRY_MS); } catch (InterruptedException ie) { return; }
+            } catch (RuntimeException e) {
+                // Refused by the home (not its user, bad request): repeating it cannot help
+                e.printStackTrace();
+                acknowledged(c);
+            }
+        }
+    }
+
+    // IOException for anything worth repeating (no answer, home busy or failing)
+    private static Map<String, Object> send(Call c) throws IOException {
+        StringBuilder form = new StringBuilder("user=").append(URLEncoder.encode(c.user, StandardCharsets.UTF_8))
+                .append("&amount=").append(Money.format(c.cents))
+                .append("&key=").append(URLEncoder.encode(Partitions.CLUSTER_KEY, StandardCharsets.UTF_8));
+        if (c.op != null) form.append("&op=").append(URLEncoder.encode(c.op, StandardCharsets.UTF_8));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(Partitions.url(Partitions.ofUser(c.user)) + "/wallet/" + c.kind))
+                .timeout(Duration.ofSeconds(5))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form.toString()))
+                .build();
+        HttpResponse<String> r;
+        try {
+            r = http.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        }
+        if (r.statusCode() >= 500) throw new IOException("HTTP " + r.statusCode() + " from partition");
+        if (r.statusCode() != 200) throw new IllegalStateException("Wallet " + c.kind + " refused: " + r.body());
+        return Json.object(Json.parse(r.body()));
+    }
+
+    // --- HOME SIDE ---
+    enum Outcome { HELD, REFUSED, CANCELLED, DONE }
+
+    private static final Map<String, Outcome> applied = new ConcurrentHashMap<>();
+    private static final ConcurrentLinkedQueue<String> appliedOrder = new ConcurrentLinkedQueue<>();
+
+    // Applies a peer's call to a local wallet once; a repeated id gets the first answer
+    static Outcome apply(String kind, String user, long cents, String op) {
+        Outcome o = applied.compute(op, (k, prev) -> {
+            if (prev == null) appliedOrder.add(k);
+            if (kind.equals("cancel")) {
+                // A hold that comes in after its cancel finds CANCELLED and is refused
+                if (prev == Outcome.HELD) WalletManager.releaseFunds(user, cents);
+                return prev == null || prev == Outcome.HELD ? Outcome.CANCELLED : prev;
+            }
+            if (prev != null) return prev;
+            switch (kind) {
+                case "hold": return WalletManager.holdFunds(user, cents) ? Outcome.HELD : Outcome.REFUSED;
+                case "release": WalletManager.releaseFunds(user, cents); break;
+                case "commit": WalletManager.payFromHold(user, cents); break;
+                case "credit": WalletManager.receivePayment(user, cents); break;
+                default: throw new IllegalArgumentException("Unknown wallet call " + kind);
+            }
+            return Outcome.DONE;
+        });
+        while (applied.size() > RECENT_OPS) {
+            String oldest = appliedOrder.poll();
+            if (oldest == null) break;
+            applied.remove(oldest);
+        }
+        return o;
+    }
+}
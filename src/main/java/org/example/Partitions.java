@@ -0,0 +1,99 @@
+package org.example;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Who owns what when the engine runs as several processes (see ClusterLauncher).
+// Items are placed by their id and users (with their wallet and ledger) by their name, on one consistent-hash
+// ring of VNODES points per partition. Points depend only on the partition number, so going from N to N + 1
+// partitions moves about 1/(N + 1) of the keys and leaves the rest where they were.
+//
+// Settings (system properties):
+//   auction.partitions   base URLs of every partition, comma separated, in partition order
+//   auction.partition    this process's number in that list (unset: the router, or a single engine)
+//
+// The secret shared by the partitions and the router (peer calls, session tokens) comes from the
+// AUCTION_CLUSTER_KEY environment variable, which other local users cannot read the way they can read a command
+// line. ClusterLauncher generates it and hands it to its children that way.
+public final class Partitions {
+    private Partitions() {}
+
+    static final List<String> URLS = urls(System.getProperty("auction.partitions"));
+    static final int SELF = Integer.getInteger("auction.partition", -1);
+    public static final boolean ENABLED = !URLS.isEmpty();
+    static final String CLUSTER_KEY_ENV = "AUCTION_CLUSTER_KEY";
+    static final String CLUSTER_KEY = clusterKey();
+    private static final int VNODES = 128;
+
+    // Ring: sorted hash points and the partition each one belongs to
+    private static final long[] points;
+    private static final int[] owners;
+
+    static {
+        int n = URLS.size();
+        long[][] ring = new long[n * VNODES][];
+        for (int p = 0; p < n; p++) {
+            // Seeded per partition, so no point sits exactly on a small item id
+            long seed = mix(p + 1);
+            for (int v = 0; v < VNODES; v++) ring[p * VNODES + v] = new long[] { mix(seed + v), p };
+        }
+        Arrays.sort(ring, (a, b) -> Long.compare(a[0], b[0]));
+        points = new long[ring.length];
+        owners = new int[ring.length];
+        for (int i = 0; i < ring.length; i++) {
+            points[i] = ring[i][0];
+            owners[i] = (int) ring[i][1];
+        }
+    }
+
+    // The launcher's own router sets it in-process as a property, never on a command line
+    private static String clusterKey() {
+        String key = System.getenv(CLUSTER_KEY_ENV);
+        return key != null && !key.isEmpty() ? key : System.getProperty("auction.cluster.key", "");
+    }
+
+    private static List<String> urls(String list) {
+        List<String> out = new ArrayList<>();
+        if (list == null) return out;
+        for (String u : list.split(",")) {
+            u = u.trim();
+            if (!u.isEmpty()) out.add(u.endsWith("/") ? u.substring(0, u.length() - 1) : u);
+        }
+        return out;
+    }
+
+    // --- OWNERSHIP ---
+    static int ofItem(long id) { return owner(mix(id)); }
+
+    static int ofUser(String username) {
+        // FNV-1a over the UTF-8 bytes, then the same mixer as ids
+        long h = 0xcbf29ce484222325L;
+        for (byte b : username.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return owner(mix(h));
+    }
+
+    // A single engine owns everything; so does a partition, for ids and names that hash to it
+    static boolean ownsItem(long id) { return SELF < 0 || ofItem(id) == SELF; }
+    static boolean isHome(String username) { return SELF < 0 || ofUser(username) == SELF; }
+
+    static String url(int partition) { return URLS.get(partition); }
+
+    // First point at or after h, wrapping around
+    private static int owner(long h) {
+        int i = Arrays.binarySearch(points, h);
+        if (i < 0) i = -i - 1;
+        return owners[i == points.length ? 0 : i];
+    }
+
+    // SplitMix64 finalizer: neighbouring ids land far apart on the ring
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,259 @@
+package org.example;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// Client side of AuctionServer, used by AuctionCommands when -Dauction.server=http://host:port is set.
+// The process then loads nothing from disk: no items.txt, no users.db, no engine threads.
+//
+// Items are mirrored in an id -> Item map, so every reply hands back the SAME Item object for an id
+// (the listing's rows are keyed by identity) and the /events long-poll keeps those objects current.
+// The server names the caller from the session token; user names passed by the screens are not sent.
+public final class RemoteAuction {
+    private RemoteAuction() {}
+
+    public static final String SERVER = System.getProperty("auction.server");
+    public static final boolean ENABLED = SERVER != null && !SERVER.isEmpty();
+    private static final long EVENT_WAIT_MS = 25_000;
+
+    // Error reply from the server (the message is already meant for the user)
+    public static class RemoteException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        final int status;
+
+        RemoteException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    // HTTP/1.1: one kept-alive connection per concurrent call, no upgrade round trip
+    private static final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private static final Map<Long, ItemManager.Item> items = new ConcurrentHashMap<>();
+    private static final List<Consumer<ItemEvent>> listeners = new CopyOnWriteArrayList<>();
+    private static volatile String token;
+    private static Thread poller;
+
+    // --- ACCOUNTS ---
+    public static CompletableFuture<Boolean> register(String username, String password) {
+        return call("POST", "/register", "username", username, "password", password)
+                .thenApply(r -> (Boolean) Json.object(r).get("created"));
+    }
+
+    // Completes with the session token, or null for wrong credentials
+    public static CompletableFuture<String> login(String username, String password) {
+        return call("POST", "/login", "username", username, "password", password).handle((r, ex) -> {
+            if (ex == null) return token = (String) Json.object(r).get("token");
+            Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+            if (cause instanceof RemoteException && ((RemoteException) cause).status == 401) return null;
+            throw ex instanceof CompletionException ? (CompletionException) ex : new CompletionException(ex);
+        });
+    }
+
+    public static void logout() { token = null; }
+
+    // --- CATALOG ---
+    // Listing order only: category, open-only and the keyset cursor are sent, other sorts are not served
+    public static CompletableFuture<List<ItemManager.Item>> query(ItemQuery q) {
+        return call("GET", "/items", "category", q.category, "open", q.openOnly ? "true" : null,
+                "after", q.afterId == Long.MIN_VALUE ? null : String.valueOf(q.afterId), "limit", String.valueOf(q.limit))
+                .thenApply(RemoteAuction::items);
+    }
+
+    public static CompletableFuture<Integer> count(String category) {
+        return call("GET", "/count", "category", category)
+                .thenApply(r -> Integer.parseInt((String) Json.object(r).get("count")));
+    }
+
+    public static CompletableFuture<List<ItemManager.Item>> search(String q) {
+        return call("GET", "/search", "q", q).thenApply(RemoteAuction::items);
+    }
+
+    // --- COMMANDS ---
+    public static CompletableFuture<String> placeBid(ItemManager.Item item, double amount, boolean proxy) {
+        return call("POST", "/bid", "token", token, "item", String.valueOf(item.id),
+                "amount", Money.format(Money.toCents(amount)), "proxy", String.valueOf(proxy))
+                .thenApply(r -> (String) Json.object(r).get("result"));
+    }
+
+    public static CompletableFuture<List<String>> placeBids(List<ItemManager.BidCommand> commands) {
+        String[] params = new String[2 + commands.size() * 6];
+        params[0] = "token"; params[1] = token;
+        int k = 2;
+        for (ItemManager.BidCommand c : commands) {
+            params[k++] = "item"; params[k++] = String.valueOf(c.item.id);
+            params[k++] = "amount"; params[k++] = Money.format(Money.toCents(c.amount));
+            params[k++] = "proxy"; params[k++] = String.valueOf(c.proxy);
+        }
+        return call("POST", "/bids", params).thenApply(r -> {
+            List<String> results = new ArrayList<>(commands.size());
+            for (Object o : Json.array(Json.object(r).get("results"))) results.add((String) o);
+            return results;
+        });
+    }
+
+    public static CompletableFuture<Void> createAuction(String name, double price, String category,
+                                                        String imagePath, String condition, int durationMinutes) {
+        return call("POST", "/sell", "token", token, "name", name, "price", Money.format(Money.toCents(price)),
+                "category", category, "image", imagePath, "condition", condition, "minutes", String.valueOf(durationMinutes))
+                .thenApply(r -> null);
+    }
+
+    public static CompletableFuture<Void> deleteItem(ItemManager.Item item) {
+        return call("POST", "/delete", "token", token, "item", String.valueOf(item.id)).thenApply(r -> null);
+    }
+
+    // Completes with the balance after the deposit
+    public static CompletableFuture<Double> deposit(double amount) {
+        return call("POST", "/deposit", "token", token, "amount", Money.format(Money.toCents(amount)))
+                .thenApply(RemoteAuction::balanceOf);
+    }
+
+    public static CompletableFuture<Double> balance() {
+        return call("GET", "/balance", "token", token).thenApply(RemoteAuction::balanceOf);
+    }
+
+    private static Double balanceOf(Object reply) {
+        return Money.toDollars(Money.parse((String) Json.object(reply).get("balance")));
+    }
+
+    // --- HISTORY ---
+    // One page of the signed-in user's finished auctions, newest first (AuctionArchive.soldBy / wonBy)
+    public static CompletableFuture<List<AuctionArchive.ArchivedItem>> history(boolean sold, long beforeId, int limit) {
+        return call("GET", "/history", "token", token, "role", sold ? "sold" : "won",
+                "after", beforeId == Long.MAX_VALUE ? null : String.valueOf(beforeId), "limit", String.valueOf(limit))
+                .thenApply(r -> {
+                    List<Object> array = Json.array(r);
+                    List<AuctionArchive.ArchivedItem> out = new ArrayList<>(array.size());
+                    for (Object e : array) {
+                        Map<String, Object> o = Json.object(e);
+                        out.add(new AuctionArchive.ArchivedItem(Long.parseLong((String) o.get("id")), (String) o.get("name"),
+                                (String) o.get("category"), (String) o.get("owner"), (String) o.get("image"),
+                                (String) o.get("condition"), Money.parse((String) o.get("startingPrice")),
+                                Money.parse((String) o.get("finalBid")), (String) o.get("winner"),
+                                Long.parseLong((String) o.get("endTime"))));
+                    }
+                    return out;
+                });
+    }
+
+    // --- EVENTS ---
+    // The long-poll thread starts with the first listener
+    public static synchronized void addListener(Consumer<ItemEvent> listener) {
+        listeners.add(listener);
+        if (poller == null) {
+            poller = new Thread(RemoteAuction::pollEvents, "auction-events");
+            poller.setDaemon(true);
+            poller.start();
+        }
+    }
+
+    public static void removeListener(Consumer<ItemEvent> listener) { listeners.remove(listener); }
+
+    private static void pollEvents() {
+        long seq = -1;   // first call only learns where the feed is
+        boolean lost = false;
+        while (true) {
+            try {
+                Map<String, Object> reply = Json.object(call("GET", "/events", "after", String.valueOf(seq),
+                        "wait", String.valueOf(EVENT_WAIT_MS)).join());
+                if (seq >= 0) {
+                    for (Object e : Json.array(reply.get("events"))) deliver(Json.object(e));
+                }
+                // Changes were missed (the feed says so, or it was unreachable): listeners reload what they show
+                if (lost || Boolean.TRUE.equals(reply.get("gap"))) {
+                    ItemEvent reload = new ItemEvent(ItemEvent.Type.RELOAD, null);
+                    for (Consumer<ItemEvent> l : listeners) l.accept(reload);
+                }
+                lost = false;
+                seq = Long.parseLong((String) reply.get("seq"));
+            } catch (CompletionException | IllegalArgumentException e) {
+                // Server restarting or unreachable: back off, then start again from its current position
+                lost = true;
+                seq = -1;
+                try { Thread.sleep(1000); } catch (InterruptedException ie) { return; }
+            }
+        }
+    }
+
+    private static void deliver(Map<String, Object> e) {
+        ItemEvent.Type type = ItemEvent.Type.valueOf((String) e.get("type"));
+        ItemManager.Item item = item(Json.object(e.get("item")));
+        if (type == ItemEvent.Type.DELETED || type == ItemEvent.Type.ARCHIVED) items.remove(item.id);
+        ItemEvent event = new ItemEvent(type, item);
+        for (Consumer<ItemEvent> l : listeners) l.accept(event);
+    }
+
+    // --- ITEM MIRROR ---
+    private static List<ItemManager.Item> items(Object reply) {
+        List<Object> array = Json.array(reply);
+        List<ItemManager.Item> out = new ArrayList<>(array.size());
+        for (Object o : array) out.add(item(Json.object(o)));
+        return out;
+    }
+
+    // The one local Item for this id, brought up to the reply's state unless it already has a newer one
+    private static ItemManager.Item item(Map<String, Object> o) {
+        long id = Long.parseLong((String) o.get("id"));
+        long bid = Money.parse((String) o.get("currentBid"));
+        String topBidder = (String) o.get("topBidder");
+        long endTime = Long.parseLong((String) o.get("endTime"));
+        boolean open = (Boolean) o.get("open");
+        ItemManager.Item item = items.computeIfAbsent(id, k -> {
+            ItemManager.Item i = new ItemManager.Item((String) o.get("name"), Money.parse((String) o.get("startingPrice")),
+                    (String) o.get("category"), (String) o.get("owner"), (String) o.get("image"), (String) o.get("condition"),
+                    bid, topBidder, endTime, open);
+            i.id = id;
+            return i;
+        });
+        item.restore(new ItemManager.BidState(bid, topBidder, endTime, open, Long.parseLong((String) o.get("version"))));
+        return item;
+    }
+
+    // --- TRANSPORT ---
+    // params are name/value pairs; null values are left out
+    private static CompletableFuture<Object> call(String method, String path, String... params) {
+        StringBuilder form = new StringBuilder();
+        for (int i = 0; i < params.length; i += 2) {
+            if (params[i + 1] == null) continue;
+            if (form.length() > 0) form.append('&');
+            form.append(URLEncoder.encode(params[i], StandardCharsets.UTF_8)).append('=')
+                    .append(URLEncoder.encode(params[i + 1], StandardCharsets.UTF_8));
+        }
+        boolean get = method.equals("GET");
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(SERVER + path + (get && form.length() > 0 ? "?" + form : "")))
+                .timeout(Duration.ofMillis(EVENT_WAIT_MS + 10_000));
+        if (get) {
+            request.GET();
+        } else {
+            request.header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString(form.toString()));
+        }
+        return http.sendAsync(request.build(), HttpResponse.BodyHandlers.ofString()).thenApply(r -> {
+            Object body = r.body().isEmpty() ? null : Json.parse(r.body());
+            if (r.statusCode() == 200) return body;
+            String message = body instanceof Map ? (String) Json.object(body).get("error") : "HTTP " + r.statusCode();
+            // Only the sign-in calls queue on the auth pool; any other 503 (wallet or partition down) says why
+            boolean signIn = path.equals("/login") || path.equals("/register");
+            if (r.statusCode() == 503 && signIn) throw new UserAuth.AuthBusyException();
+            throw new RemoteException(r.statusCode(), message);
+        });
+    }
+}
@@ -0,0 +1,122 @@
+package org.example;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory n-gram index over lower-cased item names.
+// Every 0-, 1-, 2- and 3-character substring of a name maps to the items containing it, kept in id order
+// (= listing order); the empty gram lists every item. A query of up to 3 chars is a single lookup answered
+// with the posting's read-only list, which is built once after the posting changes and shared by every query
+// until the next change. A longer query intersects its trigrams through the shortest posting list and only
+// verifies those few candidates with contains().
+public class SearchIndex {
+    private static final int GRAM = 3;
+
+    private static final Comparator<ItemManager.Item> BY_ID = Comparator.comparingLong(i -> i.id);
+
+    // Items in id order, plus their list for readers. The list is dropped on every write (under the write
+    // lock) and rebuilt by the first reader after it; a race between two readers only builds it twice.
+    private static final class Posting {
+        final NavigableSet<ItemManager.Item> items = new TreeSet<>(BY_ID);
+        volatile List<ItemManager.Item> list;
+
+        List<ItemManager.Item> list() {
+            List<ItemManager.Item> l = list;
+            if (l == null) list = l = Collections.unmodifiableList(new ArrayList<>(items));
+            return l;
+        }
+    }
+
+    private static final Map<String, Posting> postings = new HashMap<>();
+    private static final Map<ItemManager.Item, String> lowerNames = new HashMap<>();
+    private static final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // 1. RESULT CACHE: the UI re-runs the same query every second, answer it without touching the index
+    private static long version;
+    private static String cachedQuery;
+    private static long cachedVersion = -1;
+    private static List<ItemManager.Item> cachedResult;
+
+    static void add(ItemManager.Item item) {
+        String lower = item.name.toLowerCase();
+        lock.writeLock().lock();
+        try {
+            lowerNames.put(item, lower);
+            for (String g : grams(lower)) {
+                Posting posting = postings.computeIfAbsent(g, k -> new Posting());
+                posting.items.add(item);
+                posting.list = null;
+            }
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    static void remove(ItemManager.Item item) {
+        lock.writeLock().lock();
+        try {
+            String lower = lowerNames.remove(item);
+            if (lower == null) return;
+            for (String g : grams(lower)) {
+                Posting posting = postings.get(g);
+                if (posting == null || !posting.items.remove(item)) continue;
+                posting.list = null;
+                if (posting.items.isEmpty()) postings.remove(g);
+            }
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Same results, in the same order, as filtering activeItems with name.toLowerCase().contains(q.toLowerCase())
+    static List<ItemManager.Item> search(String q) {
+        String needle = q.toLowerCase();
+        lock.readLock().lock();
+        try {
+            synchronized (SearchIndex.class) {
+                if (cachedVersion == version && needle.equals(cachedQuery)) return cachedResult;
+            }
+            List<ItemManager.Item> result = lookup(needle);
+            synchronized (SearchIndex.class) {
+                cachedQuery = needle; cachedVersion = version; cachedResult = result;
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Read-only; called under the read lock
+    private static List<ItemManager.Item> lookup(String needle) {
+        // 2. SHORT QUERY (or none): the query is itself an indexed gram, no verification and no copy
+        if (needle.length() <= GRAM) {
+            Posting posting = postings.get(needle);
+            return posting == null ? Collections.emptyList() : posting.list();
+        }
+
+        // 3. LONG QUERY: drive from the rarest trigram, every other trigram must be present too
+        NavigableSet<ItemManager.Item> smallest = null;
+        for (int i = 0; i + GRAM <= needle.length(); i++) {
+            Posting posting = postings.get(needle.substring(i, i + GRAM));
+            if (posting == null) return Collections.emptyList();
+            if (smallest == null || posting.items.size() < smallest.size()) smallest = posting.items;
+        }
+        List<ItemManager.Item> result = new ArrayList<>();
+        for (ItemManager.Item item : smallest) {
+            if (lowerNames.get(item).contains(needle)) result.add(item);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private static Set<String> grams(String lower) {
+        Set<String> out = new HashSet<>();
+        out.add("");
+        for (int len = 1; len <= GRAM; len++) {
+            for (int i = 0; i + len <= lower.length(); i++) out.add(lower.substring(i, i + len));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,164 @@
+package org.example;
+
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+// Listing thumbnails, decoded in the background at display size.
+// Rows get a placeholder immediately; the real thumbnail is swapped in on the FX thread once ready.
+//
+// Two cache levels:
+//   memory  bounded LRU of decoded thumbnails (auction.thumbs.maxEntries, default 256 = about 25 MB)
+//   disk    <dataDir>/thumbs, raw ARGB pixels deflated, keyed by image path + last-modified time,
+//           so an edited photo gets a fresh thumbnail and full-size decodes happen once per photo
+public class ThumbnailCache {
+    static final int SIZE = 160;
+    static final int MAX_ENTRIES = Integer.getInteger("auction.thumbs.maxEntries", 256);
+    private static final Path DISK_DIR = Paths.get(System.getProperty("auction.dataDir", "."), "thumbs");
+
+    public static final Image PLACEHOLDER = placeholder();
+
+    // Access-ordered, so the eldest entry is the least recently shown one
+    private static final Map<String, Image> memory = new LinkedHashMap<String, Image>(64, 0.75f, true) {
+        @Override protected boolean removeEldestEntry(Map.Entry<String, Image> eldest) { return size() > MAX_ENTRIES; }
+    };
+    // One decode per path, however many rows ask for it at once
+    private static final Map<String, CompletableFuture<Image>> inFlight = new ConcurrentHashMap<>();
+
+    // Decoding is CPU-bound: keep it to a couple of threads so it never starves the rest of the app
+    private static final ExecutorService decoder = Executors.newFixedThreadPool(
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2), new ThreadFactory() {
+                private final AtomicInteger n = new AtomicInteger();
+                @Override public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "thumbnail-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+
+    // --- FX THREAD API ---
+    // Shows the cached thumbnail, or the placeholder until the background load finishes.
+    // The view remembers which path it wants, so a late result never lands on a reused view.
+    public static void load(String path, ImageView target) {
+        target.setUserData(path);
+        Image cached;
+        synchronized (memory) { cached = memory.get(path); }
+        if (cached != null) { target.setImage(cached); return; }
+
+        target.setImage(PLACEHOLDER);
+        inFlight.computeIfAbsent(path, p -> CompletableFuture.supplyAsync(() -> loadThumbnail(p), decoder))
+                .thenAccept(img -> Platform.runLater(() -> {
+                    if (path.equals(target.getUserData())) target.setImage(img);
+                }));
+    }
+
+    // --- BACKGROUND LOAD ---
+    private static Image loadThumbnail(String path) {
+        Image img = PLACEHOLDER;
+        try {
+            Path diskFile = diskFileFor(path);
+            Image fromDisk = diskFile == null ? null : readThumb(diskFile);
+            if (fromDisk != null) {
+                img = fromDisk;
+            } else {
+                // Synchronous decode straight to display size: the full-resolution bitmap is never kept
+                Image decoded = new Image(path, SIZE, SIZE, true, true, false);
+                if (!decoded.isError()) {
+                    img = decoded;
+                    if (diskFile != null) writeThumb(diskFile, decoded);
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        // Failed loads are remembered as the placeholder too, so a broken path is not retried per row.
+        // Cached before leaving inFlight, so no caller sees neither and starts a second decode.
+        synchronized (memory) { memory.put(path, img); }
+        inFlight.remove(path);
+        return img;
+    }
+
+    // --- DISK CACHE ---
+    // Only local files have a modification time to key on; anything else is decoded every run
+    private static Path diskFileFor(String path) throws IOException {
+        URI uri;
+        try { uri = URI.create(path); } catch (IllegalArgumentException e) { return null; }
+        if (!"file".equalsIgnoreCase(uri.getScheme())) return null;
+        Path source = Paths.get(uri);
+        if (!Files.exists(source)) return null;
+        long mtime = Files.getLastModifiedTime(source).toMillis();
+        return DISK_DIR.resolve(sha1(path + "|" + mtime) + ".thumb");
+    }
+
+    private static Image readThumb(Path file) {
+        if (!Files.exists(file)) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new InflaterInputStream(Files.newInputStream(file))))) {
+            int w = in.readInt(), h = in.readInt();
+            if (w <= 0 || h <= 0 || w > SIZE || h > SIZE) return null;
+            int[] argb = new int[w * h];
+            for (int i = 0; i < argb.length; i++) argb[i] = in.readInt();
+            WritableImage img = new WritableImage(w, h);
+            img.getPixelWriter().setPixels(0, 0, w, h, PixelFormat.getIntArgbInstance(), argb, 0, w);
+            return img;
+        } catch (IOException e) {
+            // Truncated or corrupt: decode again and overwrite it
+            return null;
+        }
+    }
+
+    // Written to a temp file and renamed, so a crash never leaves a half thumbnail behind
+    private static void writeThumb(Path file, Image img) throws IOException {
+        int w = (int) img.getWidth(), h = (int) img.getHeight();
+        int[] argb = new int[w * h];
+        img.getPixelReader().getPixels(0, 0, w, h, PixelFormat.getIntArgbInstance(), argb, 0, w);
+
+        Files.createDirectories(DISK_DIR);
+        Path tmp = Files.createTempFile(DISK_DIR, "thumb", ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new DeflaterOutputStream(Files.newOutputStream(tmp))))) {
+            out.writeInt(w);
+            out.writeInt(h);
+            for (int px : argb) out.writeInt(px);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String sha1(String s) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(s.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) sb.append(String.format("%02x", b));
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Image placeholder() {
+        WritableImage img = new WritableImage(SIZE, SIZE);
+        for (int y = 0; y < SIZE; y++)
+            for (int x = 0; x < SIZE; x++) img.getPixelWriter().setArgb(x, y, 0xFFE5E5E5);
+        return img;
+    }
+}
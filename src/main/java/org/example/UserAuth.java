@@ -1,91 +1,253 @@
 package org.example;
 
 import org.mindrot.jbcrypt.BCrypt;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
 import java.sql.*;
+import java.util.Base64;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class UserAuth {
-    private static final String DB_URL = "jdbc:sqlite:users.db";
+
+    // --- AUTH EXECUTOR ---
+    // bcrypt is deliberately slow and CPU-bound. Every hash/check runs on a small dedicated pool with a bounded
+    // queue, so a login storm costs at most AUTH_THREADS cores and never competes with bidding for the rest.
+    // When the queue is full the request is refused straight away ("server busy") instead of piling up.
+    //
+    // Settings (system properties):
+    //   auction.auth.threads         concurrent bcrypt operations (default cores / 4, at least 1)
+    //   auction.auth.queue           requests allowed to wait (default 64)
+    //   auction.auth.sessionMinutes  session token lifetime (default 720)
+    static final int AUTH_THREADS = Integer.getInteger("auction.auth.threads",
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 4));
+    static final int AUTH_QUEUE = Integer.getInteger("auction.auth.queue", 64);
+    static final long SESSION_TTL_MS = TimeUnit.MINUTES.toMillis(Long.getLong("auction.auth.sessionMinutes", 720));
+
+    private static final ExecutorService authPool = new ThreadPoolExecutor(AUTH_THREADS, AUTH_THREADS,
+            0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(AUTH_QUEUE), new ThreadFactory() {
+                private final AtomicInteger n = new AtomicInteger();
+                @Override public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "auth-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    // Below the bid and settlement threads when the machine is saturated
+                    t.setPriority(Thread.MIN_PRIORITY);
+                    return t;
+                }
+            }, new ThreadPoolExecutor.AbortPolicy());
+
+    // Session signing key. Random per process: a restart signs everyone out. The partitions of a cluster derive
+    // it from the shared auction.cluster.key instead, so a token from the user's home is accepted by all of them.
+    private static final byte[] SESSION_KEY = new byte[32];
+    private static final ThreadLocal<Mac> HMAC = ThreadLocal.withInitial(() -> {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(SESSION_KEY, "HmacSHA256"));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    static {
+        if (Partitions.CLUSTER_KEY.isEmpty()) {
+            new SecureRandom().nextBytes(SESSION_KEY);
+        } else {
+            try {
+                byte[] derived = MessageDigest.getInstance("SHA-256")
+                        .digest(("session:" + Partitions.CLUSTER_KEY).getBytes(StandardCharsets.UTF_8));
+                System.arraycopy(derived, 0, SESSION_KEY, 0, SESSION_KEY.length);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    // Thrown (inside the future) when the auth queue is full
+    public static class AuthBusyException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        AuthBusyException() { super("Too many sign-in requests, try again in a moment"); }
+    }
 
     public static void initDB() {
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             Statement stmt = conn.createStatement()) {
-
-            // 1. USERS TABLE (Now with Wallet Columns)
-            String sqlUser = "CREATE TABLE IF NOT EXISTS users (" +
-                    "username TEXT PRIMARY KEY, " +
-                    "password_hash TEXT NOT NULL, " +
-                    "rating REAL DEFAULT 0, " +
-                    "review_count INTEGER DEFAULT 0, " +
-                    "balance REAL DEFAULT 0.0, " +
-                    "locked_balance REAL DEFAULT 0.0)";
-            stmt.execute(sqlUser);
-
-            // 2. LEDGER (The Audit Log - Immutable History)
-            String sqlLedger = "CREATE TABLE IF NOT EXISTS transactions (" +
-                    "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                    "username TEXT NOT NULL, " +
-                    "type TEXT NOT NULL, " + // DEPOSIT, WITHDRAW, HOLD, REFUND, PAYMENT
-                    "amount REAL NOT NULL, " +
-                    "timestamp DATETIME DEFAULT CURRENT_TIMESTAMP)";
-            stmt.execute(sqlLedger);
+        try {
+            Database.write(s -> {
+                try (Statement stmt = s.createStatement()) {
+                    // 1. USERS TABLE (Now with Wallet Columns)
+                    String sqlUser = "CREATE TABLE IF NOT EXISTS users (" +
+                            "username TEXT PRIMARY KEY, " +
+                            "password_hash TEXT NOT NULL, " +
+                            "rating REAL DEFAULT 0, " +
+                            "review_count INTEGER DEFAULT 0, " +
+                            "balance REAL DEFAULT 0.0, " +
+                            "locked_balance REAL DEFAULT 0.0)";
+                    stmt.execute(sqlUser);
 
+                    // 2. LEDGER (The Audit Log - Immutable History)
+                    String sqlLedger = "CREATE TABLE IF NOT EXISTS transactions (" +
+                            "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                            "username TEXT NOT NULL, " +
+                            "type TEXT NOT NULL, " + // DEPOSIT, WITHDRAW, HOLD, REFUND, PAYMENT
+                            "amount REAL NOT NULL, " +
+                            "timestamp DATETIME DEFAULT CURRENT_TIMESTAMP)";
+                    stmt.execute(sqlLedger);
+                    // Statements and exports read one user (or one time window) in time order
+                    stmt.execute("CREATE INDEX IF NOT EXISTS idx_transactions_user_time ON transactions(username, timestamp)");
+                    stmt.execute("CREATE INDEX IF NOT EXISTS idx_transactions_time ON transactions(timestamp)");
+
+                    // 3. CHECKPOINTS (running balance per user up to a ledger row, see Ledger.checkpoint)
+                    // Checkpoints from before they were kept in cents are dropped: the next checkpoint folds them again
+                    boolean dollarCheckpoints;
+                    try (ResultSet rs = stmt.executeQuery(
+                            "SELECT 1 FROM pragma_table_info('ledger_checkpoints') WHERE name = 'balance'")) {
+                        dollarCheckpoints = rs.next();
+                    }
+                    if (dollarCheckpoints) stmt.execute("DROP TABLE ledger_checkpoints");
+                    String sqlCheckpoints = "CREATE TABLE IF NOT EXISTS ledger_checkpoints (" +
+                            "username TEXT PRIMARY KEY, " +
+                            "last_tx_id INTEGER NOT NULL, " +
+                            "last_timestamp DATETIME NOT NULL, " +
+                            "balance_cents INTEGER NOT NULL, " +
+                            "locked_cents INTEGER NOT NULL)";
+                    stmt.execute(sqlCheckpoints);
+                }
+                return null;
+            });
         } catch (SQLException e) { e.printStackTrace(); }
     }
 
+    // Completes with true once the account exists, false if the name is taken
+    public static CompletableFuture<Boolean> registerAsync(String username, String password) {
+        return submit(() -> register0(username, password));
+    }
+
+    // Completes with a session token, or null for bad credentials
+    public static CompletableFuture<String> loginAsync(String username, String password) {
+        return submit(() -> login0(username, password) ? issueSession(username) : null);
+    }
+
+    // Blocking forms, still queued on the auth pool
     public static boolean register(String username, String password) {
+        return registerAsync(username, password).join();
+    }
+
+    public static boolean login(String username, String password) {
+        return loginAsync(username, password).join() != null;
+    }
+
+    private static <T> CompletableFuture<T> submit(Callable<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            authPool.execute(() -> {
+                try { result.complete(work.call()); } catch (Exception e) { result.completeExceptionally(e); }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new AuthBusyException());
+        }
+        return result;
+    }
+
+    private static boolean register0(String username, String password) {
         String hashed = BCrypt.hashpw(password, BCrypt.gensalt());
         // Give new users $1000 sign-up bonus for testing
         String sql = "INSERT INTO users(username, password_hash, rating, review_count, balance) VALUES(?, ?, ?, ?, 1000.0)";
 
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, username);
-            pstmt.setString(2, hashed);
-            // Random rating logic
-            pstmt.setDouble(3, 3.5 + (Math.random() * 1.5));
-            pstmt.setInt(4, (int) (Math.random() * 50));
-            pstmt.executeUpdate();
-
-            // Log the sign-up bonus
-            logTransaction(username, "SIGNUP_BONUS", 1000.0);
-            return true;
+        try {
+            Database.write(s -> {
+                PreparedStatement pstmt = s.prepare(sql);
+                pstmt.setString(1, username);
+                pstmt.setString(2, hashed);
+                // Random rating logic
+                pstmt.setDouble(3, 3.5 + (Math.random() * 1.5));
+                pstmt.setInt(4, (int) (Math.random() * 50));
+                return pstmt.executeUpdate();
+            });
         } catch (SQLException e) { return false; }
+
+        // Log the sign-up bonus
+        logTransaction(username, "SIGNUP_BONUS", Money.toCents(1000.0));
+        return true;
     }
 
-    public static boolean login(String username, String password) {
+    private static boolean login0(String username, String password) {
         String sql = "SELECT password_hash FROM users WHERE username = ?";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, username);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) return BCrypt.checkpw(password, rs.getString("password_hash"));
+        String hash = null;
+        try {
+            hash = Database.read(s -> {
+                PreparedStatement pstmt = s.prepare(sql);
+                pstmt.setString(1, username);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next() ? rs.getString("password_hash") : null;
+                }
+            });
         } catch (SQLException e) { e.printStackTrace(); }
-        return false;
+        // bcrypt runs outside the pool so a slow hash never pins a connection
+        return hash != null && BCrypt.checkpw(password, hash);
+    }
+
+    // --- SESSION TOKENS ---
+    // base64url(username) "." expiryMillis "." base64url(HMAC-SHA256 of the first two parts).
+    // Checking one is a single HMAC: no database, no bcrypt.
+    static String issueSession(String username) {
+        String body = Base64.getUrlEncoder().withoutPadding().encodeToString(username.getBytes(StandardCharsets.UTF_8))
+                + "." + (System.currentTimeMillis() + SESSION_TTL_MS);
+        return body + "." + sign(body);
+    }
+
+    // The username the token was issued to, or null if it is forged, malformed or expired
+    public static String verifySession(String token) {
+        if (token == null) return null;
+        int sig = token.lastIndexOf('.');
+        int exp = sig < 0 ? -1 : token.lastIndexOf('.', sig - 1);
+        if (exp < 0) return null;
+        String body = token.substring(0, sig);
+        byte[] expected = sign(body).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(expected, token.substring(sig + 1).getBytes(StandardCharsets.US_ASCII))) return null;
+        try {
+            if (Long.parseLong(token.substring(exp + 1, sig)) < System.currentTimeMillis()) return null;
+            return new String(Base64.getUrlDecoder().decode(token.substring(0, exp)), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String sign(String body) {
+        byte[] mac = HMAC.get().doFinal(body.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(mac);
     }
 
     public static String getSellerRating(String username) {
         String sql = "SELECT rating, review_count FROM users WHERE username = ?";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, username);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return String.format("⭐ %.1f (%d)", rs.getDouble("rating"), rs.getInt("review_count"));
-            }
+        try {
+            String rating = Database.read(s -> {
+                PreparedStatement pstmt = s.prepare(sql);
+                pstmt.setString(1, username);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) return String.format("⭐ %.1f (%d)", rs.getDouble("rating"), rs.getInt("review_count"));
+                    return null;
+                }
+            });
+            if (rating != null) return rating;
         } catch (SQLException e) { e.printStackTrace(); }
         return "New Seller";
     }
 
     // --- INTERNAL HELPER: AUDIT LOGGING ---
-    // Only accessible by other classes in this package
-    static void logTransaction(String username, String type, double amount) {
-        String sql = "INSERT INTO transactions(username, type, amount) VALUES(?, ?, ?)";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, username);
-            pstmt.setString(2, type);
-            pstmt.setDouble(3, amount);
-            pstmt.executeUpdate();
-        } catch (SQLException e) { e.printStackTrace(); }
+    // Only accessible by other classes in this package.
+    // Entries are group-committed by LedgerWriter; the returned future completes once the row is durable.
+    // Amount in cents; the transactions table stores dollars.
+    static CompletableFuture<Void> logTransaction(String username, String type, long amount) {
+        CompletableFuture<Void> committed = LedgerWriter.append(username, type, amount);
+        // SYNC mode waits here, except inside an open write transaction where waiting would deadlock
+        if (LedgerWriter.DURABILITY == LedgerWriter.Durability.SYNC && !Database.inWriteTransaction()) {
+            try { committed.join(); } catch (CompletionException e) { e.printStackTrace(); }
+        }
+        return committed;
     }
-}
\ No newline at end of file
+}
@@ -1,90 +1,235 @@
 package org.example;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+// Wallet balances live in memory while the process runs and are the source of truth.
+// Every operation is an atomic update on one account object; the users table is brought up to date
+// write-behind by a background flusher, so balance reads and hold/release never wait on SQLite.
+// When the engine is partitioned, only users whose home is this partition are kept here; calls for anyone
+// else go to their home through PartitionWallets.
 public class WalletManager {
-    private static final String DB_URL = "jdbc:sqlite:users.db";
-
-    public static double getBalance(String username) {
-        String sql = "SELECT balance FROM users WHERE username = ?";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, username);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) return rs.getDouble("balance");
-        } catch (SQLException e) { e.printStackTrace(); }
-        return 0.0;
+    // How often dirty accounts are written back (system property auction.wallet.flushMillis)
+    static final long FLUSH_INTERVAL_MS = Long.getLong("auction.wallet.flushMillis", 50);
+
+    // Balances in cents; the users table keeps dollars in REAL columns, converted on load and flush
+    private static final class Account {
+        final String username;
+        long balance, locked;
+
+        Account(String username, long balance, long locked) {
+            this.username = username; this.balance = balance; this.locked = locked;
+        }
+    }
+
+    // The bidder's home partition did not answer; nothing was held
+    public static class WalletUnavailableException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        WalletUnavailableException() { super("Wallet service unavailable, try again in a moment"); }
+    }
+
+    private static final ConcurrentHashMap<String, Account> accounts = new ConcurrentHashMap<>();
+    private static final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private static final Object flushLock = new Object();
+
+    static {
+        Thread flusher = new Thread(() -> {
+            while (true) {
+                try {
+                    Thread.sleep(FLUSH_INTERVAL_MS);
+                    flush();
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "wallet-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(WalletManager::flush));
     }
 
-    public static double getLockedBalance(String username) {
-        String sql = "SELECT locked_balance FROM users WHERE username = ?";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, username);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) return rs.getDouble("locked_balance");
-        } catch (SQLException e) { e.printStackTrace(); }
-        return 0.0;
+    // --- ACCOUNT CACHE ---
+    // Loaded from the users table on first touch. Unknown users are not cached, so a later register() is seen.
+    private static Account account(String username) {
+        return accounts.computeIfAbsent(username, u -> {
+            try {
+                return Database.read(s -> {
+                    PreparedStatement pstmt = s.prepare("SELECT balance, locked_balance FROM users WHERE username = ?");
+                    pstmt.setString(1, u);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        return rs.next() ? new Account(u, Money.toCents(rs.getDouble(1)), Money.toCents(rs.getDouble(2))) : null;
+                    }
+                });
+            } catch (SQLException e) { e.printStackTrace(); return null; }
+        });
     }
 
-    public static void deposit(String username, double amount) {
+    public static long getBalanceCents(String username) {
+        if (!Partitions.isHome(username)) return PartitionWallets.balance(username)[0];
+        Account a = account(username);
+        if (a == null) return 0;
+        synchronized (a) { return a.balance; }
+    }
+
+    public static long getLockedBalanceCents(String username) {
+        if (!Partitions.isHome(username)) return PartitionWallets.balance(username)[1];
+        Account a = account(username);
+        if (a == null) return 0;
+        synchronized (a) { return a.locked; }
+    }
+
+    // Dollars, for display
+    public static double getBalance(String username) { return Money.toDollars(getBalanceCents(username)); }
+    public static double getLockedBalance(String username) { return Money.toDollars(getLockedBalanceCents(username)); }
+
+    public static void deposit(String username, double dollars) {
+        long amount = Money.toCents(dollars);
         if (amount <= 0) return;
-        updateBalance(username, amount);
+        long start = System.nanoTime();
+        Account a = account(username);
+        if (a == null) return;
+        synchronized (a) { a.balance += amount; }
+        dirty.add(username);
         UserAuth.logTransaction(username, "DEPOSIT", amount);
+        Metrics.WALLET_DEPOSIT.record(System.nanoTime() - start);
     }
 
-    public static boolean holdFunds(String username, double amount) {
-        if (getBalance(username) < amount) return false;
-        String sql = "UPDATE users SET balance = balance - ?, locked_balance = locked_balance + ? WHERE username = ?";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setDouble(1, amount);
-            pstmt.setDouble(2, amount);
-            pstmt.setString(3, username);
-            pstmt.executeUpdate();
+    public static boolean holdFunds(String username, long amount) {
+        // A negative hold would credit the balance and drive `locked` below zero
+        if (amount <= 0) throw new IllegalArgumentException("Hold must be positive");
+        if (!Partitions.isHome(username)) return PartitionWallets.hold(username, amount);
+        long start = System.nanoTime();
+        boolean held = false;
+        Account a = account(username);
+        if (a != null) {
+            // Balance check and debit happen under the account lock, so two holds can never overspend
+            synchronized (a) {
+                if (a.balance >= amount) {
+                    a.balance -= amount;
+                    a.locked += amount;
+                    held = true;
+                }
+            }
+        }
+        if (held) {
+            dirty.add(username);
             UserAuth.logTransaction(username, "HOLD_BID", -amount);
-            return true;
-        } catch (SQLException e) { e.printStackTrace(); return false; }
+        }
+        Metrics.WALLET_HOLD.record(System.nanoTime() - start);
+        return held;
     }
 
-    public static void releaseFunds(String username, double amount) {
-        String sql = "UPDATE users SET balance = balance + ?, locked_balance = locked_balance - ? WHERE username = ?";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setDouble(1, amount);
-            pstmt.setDouble(2, amount);
-            pstmt.setString(3, username);
-            pstmt.executeUpdate();
-            UserAuth.logTransaction(username, "REFUND_OUTBID", amount);
-        } catch (SQLException e) { e.printStackTrace(); }
+    public static void releaseFunds(String username, long amount) {
+        if (amount <= 0) throw new IllegalArgumentException("Release must be positive");
+        if (!Partitions.isHome(username)) {
+            PartitionWallets.release(username, amount);
+            return;
+        }
+        long start = System.nanoTime();
+        Account a = account(username);
+        if (a == null) return;
+        synchronized (a) {
+            a.balance += amount;
+            a.locked -= amount;
+        }
+        dirty.add(username);
+        UserAuth.logTransaction(username, "REFUND_OUTBID", amount);
+        Metrics.WALLET_RELEASE.record(System.nanoTime() - start);
     }
 
-    public static void transferLockedFundsToSeller(String buyer, String seller, double amount) {
-        String sqlBuyer = "UPDATE users SET locked_balance = locked_balance - ? WHERE username = ?";
-        String sqlSeller = "UPDATE users SET balance = balance + ? WHERE username = ?";
+    public static void transferLockedFundsToSeller(String buyer, String seller, long amount) {
+        if (!Partitions.isHome(buyer) || !Partitions.isHome(seller)) {
+            // Homes in different partitions: each side is applied by its own home
+            payFromHold(buyer, amount);
+            receivePayment(seller, amount);
+            return;
+        }
+        long start = System.nanoTime();
+        Account from = account(buyer), to = account(seller);
+        if (from == null || to == null) return;
 
-        try (Connection conn = DriverManager.getConnection(DB_URL)) {
-            conn.setAutoCommit(false); // ATOMIC TRANSACTION
-            try (PreparedStatement p1 = conn.prepareStatement(sqlBuyer);
-                 PreparedStatement p2 = conn.prepareStatement(sqlSeller)) {
+        // ATOMIC TRANSFER: both accounts locked in a fixed (name) order, so no one sees half a payment
+        Account first = buyer.compareTo(seller) <= 0 ? from : to;
+        Account second = first == from ? to : from;
+        synchronized (first) {
+            synchronized (second) {
+                from.locked -= amount;
+                to.balance += amount;
+            }
+        }
+        dirty.add(buyer);
+        dirty.add(seller);
+        // Ledger rows follow through the group-commit writer
+        UserAuth.logTransaction(buyer, "PAYMENT_SENT", -amount);
+        UserAuth.logTransaction(seller, "PAYMENT_RECEIVED", amount);
+        Metrics.WALLET_TRANSFER.record(System.nanoTime() - start);
+    }
 
-                p1.setDouble(1, amount); p1.setString(2, buyer); p1.executeUpdate();
-                p2.setDouble(1, amount); p2.setString(2, seller); p2.executeUpdate();
+    // The buyer's half of a payment: the held funds leave the wallet
+    static void payFromHold(String buyer, long amount) {
+        if (!Partitions.isHome(buyer)) {
+            PartitionWallets.commit(buyer, amount);
+            return;
+        }
+        Account a = account(buyer);
+        if (a == null) return;
+        synchronized (a) { a.locked -= amount; }
+        dirty.add(buyer);
+        UserAuth.logTransaction(buyer, "PAYMENT_SENT", -amount);
+    }
 
-                conn.commit();
-                UserAuth.logTransaction(buyer, "PAYMENT_SENT", -amount);
-                UserAuth.logTransaction(seller, "PAYMENT_RECEIVED", amount);
-            } catch (SQLException e) { conn.rollback(); e.printStackTrace(); }
-        } catch (SQLException e) { e.printStackTrace(); }
+    // The seller's half
+    static void receivePayment(String seller, long amount) {
+        if (!Partitions.isHome(seller)) {
+            PartitionWallets.credit(seller, amount);
+            return;
+        }
+        Account a = account(seller);
+        if (a == null) return;
+        synchronized (a) { a.balance += amount; }
+        dirty.add(seller);
+        UserAuth.logTransaction(seller, "PAYMENT_RECEIVED", amount);
     }
 
-    private static void updateBalance(String username, double amount) {
-        String sql = "UPDATE users SET balance = balance + ? WHERE username = ?";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setDouble(1, amount);
-            pstmt.setString(2, username);
-            pstmt.executeUpdate();
-        } catch (SQLException e) { e.printStackTrace(); }
+    // --- WRITE-BEHIND ---
+    // Writes the current value of every dirty account in one transaction.
+    public static void flush() {
+        synchronized (flushLock) {
+            if (dirty.isEmpty()) return;
+            long start = System.nanoTime();
+            List<Account> batch = new ArrayList<>();
+            for (String username : dirty) {
+                // Remove BEFORE snapshotting: an update racing with us re-marks the account for the next flush
+                dirty.remove(username);
+                Account a = accounts.get(username);
+                if (a != null) {
+                    synchronized (a) { batch.add(new Account(a.username, a.balance, a.locked)); }
+                }
+            }
+
+            String sql = "UPDATE users SET balance = ?, locked_balance = ? WHERE username = ?";
+            try {
+                Database.write(s -> {
+                    PreparedStatement pstmt = s.prepare(sql);
+                    for (Account a : batch) {
+                        pstmt.setDouble(1, Money.toDollars(a.balance));
+                        pstmt.setDouble(2, Money.toDollars(a.locked));
+                        pstmt.setString(3, a.username);
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                    return null;
+                });
+                Metrics.WALLET_FLUSH.record(System.nanoTime() - start);
+            } catch (SQLException e) {
+                e.printStackTrace();
+                // Keep them dirty so the next round retries
+                for (Account a : batch) dirty.add(a.username);
+            }
+        }
     }
-}
\ No newline at end of file
+}